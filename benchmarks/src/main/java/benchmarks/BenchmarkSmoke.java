@@ -0,0 +1,31 @@
+package benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs every benchmark once in process with its smallest parameters, so a benchmark broken by a change of the
+ * framework fails the build instead of the next measurement.
+ * <p>
+ * Run by {@code mvn -f benchmarks/pom.xml verify}, or {@code java -cp benchmarks/target/benchmarks.jar benchmarks.BenchmarkSmoke}.
+ */
+public class BenchmarkSmoke {
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include("benchmarks\\.")
+                .param("steps", "10")
+                .param("rows", "1000")
+                .forks(0)
+                .warmupIterations(0)
+                .measurementIterations(1)
+                .measurementTime(TimeValue.milliseconds(1))
+                .shouldFailOnError(true)
+                .build();
+        int results = new Runner(options).run().size();
+        System.out.println("Every benchmark ran once: " + results + " results.");
+    }
+}
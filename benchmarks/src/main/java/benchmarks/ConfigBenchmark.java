@@ -0,0 +1,57 @@
+package benchmarks;
+
+import base.TestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestConfig;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the configuration lookups.
+ * <ul>
+ *     <li>initializePropertyFile: the legacy entry point used by the tests
+ *     <li>snapshotLookup: a typed lookup on the cached snapshot
+ *     <li>load: parsing the properties file, the cost paid on every lookup before the snapshot was cached
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class ConfigBenchmark {
+    @Setup
+    public void setup() throws Exception
+    {
+        Fixtures.useGeneratedConfig();
+    }
+
+    @Benchmark
+    public Properties initializePropertyFile()
+    {
+        return TestBase.initializePropertyFile();
+    }
+
+    @Benchmark
+    public String snapshotLookup()
+    {
+        return TestConfig.get().getTargetUrl();
+    }
+
+    @Benchmark
+    public TestConfig load()
+    {
+        return TestConfig.load(TestConfig.path());
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.DataProvider;
+import utils.ExcelDataIndex;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DataProvider#fetchData} on generated workbooks.
+ * <ul>
+ *     <li>cold: the workbook is streamed and indexed on every call
+ *     <li>warm: the rows are served from the shared index
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class FetchDataBenchmark {
+    @Param({"1000", "10000", "50000"})
+    public int rows;
+
+    private String path;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Fixtures.useGeneratedConfig();
+        File workbook = Fixtures.testDataWorkbook(rows, 100);
+        path = workbook.getAbsolutePath();
+    }
+
+    @Benchmark
+    public Object[][] cold() throws Exception
+    {
+        ExcelDataIndex.invalidateAll();
+        return DataProvider.fetchData(path, "TestCase_7", FetchDataBenchmark.class);
+    }
+
+    @Benchmark
+    public Object[][] warm() throws Exception
+    {
+        return DataProvider.fetchData(path, "TestCase_7", FetchDataBenchmark.class);
+    }
+}
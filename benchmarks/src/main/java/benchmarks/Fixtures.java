@@ -0,0 +1,103 @@
+package benchmarks;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Generates the files used by the benchmarks, everything is written to temporary files so the benchmarks run offline.
+ */
+public class Fixtures {
+    /**
+     * Point the framework configuration to a generated properties file, must be called before the framework is used.
+     * @throws IOException if the file can not be written
+     */
+    public static void useGeneratedConfig() throws IOException
+    {
+        if (System.getProperty("config.path") != null) {
+            return;
+        }
+        File config = File.createTempFile("testconfigs", ".properties");
+        config.deleteOnExit();
+        Files.write(config.toPath(), String.join(System.lineSeparator(),
+                "BrowserType=Chrome",
+                "TargetURL=about:blank",
+                "RunType=local",
+                "WaitTimeoutSeconds=1",
+                "DomQuietMillis=0").getBytes());
+        System.setProperty("config.path", config.getAbsolutePath());
+    }
+
+    /**
+     * Generate a test data workbook with a TestCases sheet.
+     * @param rows the number of data rows
+     * @param testCases the number of distinct test case names
+     * @return the workbook file
+     * @throws IOException if the file can not be written
+     */
+    public static File testDataWorkbook(int rows, int testCases) throws IOException
+    {
+        File file = File.createTempFile("testData-" + rows, ".xlsx");
+        file.deleteOnExit();
+        try (SXSSFWorkbook book = new SXSSFWorkbook(100); OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = book.createSheet("TestCases");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("TestCaseName");
+            header.createCell(1).setCellValue("RunMode");
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("TestCase_" + (i % testCases));
+                row.createCell(1).setCellValue(true);
+                row.createCell(2).setCellValue("keyword " + i);
+                row.createCell(3).setCellValue(i % 10 + 2);
+                row.createCell(4).setCellValue(i % 10 + 3);
+            }
+            book.write(out);
+            book.dispose();
+        }
+        return file;
+    }
+
+    /**
+     * Generate a keyword workbook with one sheet of repeated search steps.
+     * @param sheetName the name of the sheet
+     * @param steps the number of steps
+     * @return the workbook file
+     * @throws IOException if the file can not be written
+     */
+    public static File keywordWorkbook(String sheetName, int steps) throws IOException
+    {
+        String[][] cycle = {
+                {"Send Search Word", "//input[@id='sb_form_q']", "send data", "Vodafone"},
+                {"Click on search button", "//*[@id='search_icon']", "click", "NA"},
+                {"Scroll to end of the page", "NA", "scroll", "NA"},
+                {"Get results count", "//div[@class='b_tpcn']/a", "get results", "NA"},
+        };
+        File file = File.createTempFile("keywords-" + steps, ".xlsx");
+        file.deleteOnExit();
+        try (SXSSFWorkbook book = new SXSSFWorkbook(100); OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = book.createSheet(sheetName);
+            Row header = sheet.createRow(0);
+            String[] titles = {"test step", "locator", "action", "value"};
+            for (int c = 0; c < titles.length; c++) {
+                header.createCell(c).setCellValue(titles[c]);
+            }
+            for (int i = 1; i <= steps; i++) {
+                Row row = sheet.createRow(i);
+                String[] step = cycle[(i - 1) % cycle.length];
+                for (int c = 0; c < step.length; c++) {
+                    row.createCell(c).setCellValue(step[c]);
+                }
+            }
+            book.write(out);
+            book.dispose();
+        }
+        return file;
+    }
+}
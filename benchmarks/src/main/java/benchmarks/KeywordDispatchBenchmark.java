@@ -0,0 +1,65 @@
+package benchmarks;
+
+import keywords.KeywordCompiler;
+import keywords.KeywordExecutor;
+import keywords.SheetResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the keyword execution of {@link utils.DataProvider#startExecution} against a stub driver.
+ * <ul>
+ *     <li>compileAndExecute: the sheet is compiled on every run, as when the workbook changes
+ *     <li>execute: the cached plan is executed
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class KeywordDispatchBenchmark {
+    @Param({"10", "100", "1000"})
+    public int steps;
+
+    private String path;
+    private KeywordExecutor executor;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Fixtures.useGeneratedConfig();
+        path = Fixtures.keywordWorkbook("TC_1", steps).getAbsolutePath();
+        executor = new KeywordExecutor(new StubWebDriver(10));
+        SheetResult result = executor.execute(KeywordCompiler.compile(path, "TC_1"));
+        if (!result.isPassed()) {
+            // a failing step would skip the rest of the plan and measure only the failure
+            throw new IllegalStateException("The benchmark sheet fails on the stub driver: " + result.failureMessage());
+        }
+    }
+
+    @Benchmark
+    public SheetResult compileAndExecute()
+    {
+        KeywordCompiler.invalidateAll();
+        return executor.execute(KeywordCompiler.compile(path, "TC_1"));
+    }
+
+    @Benchmark
+    public SheetResult execute()
+    {
+        return executor.execute(KeywordCompiler.compile(path, "TC_1"));
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import pages.Locators;
+import pages.ResultsPage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the page object locator handling against a stub driver.
+ * <ul>
+ *     <li>paginationLocator: resolving the pagination locator from the {@link Locators} registry, as done on every
+ *     pageNavigator call
+ *     <li>pageNavigator: the whole pagination step, locator, waits and click
+ *     <li>resultsCount: counting the results of the page
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class LocatorBenchmark {
+    private ResultsPage resultsPage;
+    private int page = 0;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Fixtures.useGeneratedConfig();
+        resultsPage = new ResultsPage(new StubWebDriver(10));
+    }
+
+    @Benchmark
+    public By paginationLocator()
+    {
+        return Locators.get("pagination.page", "n", String.valueOf(page++ % 10 + 2));
+    }
+
+    @Benchmark
+    public void pageNavigator()
+    {
+        resultsPage.pageNavigator(String.valueOf(page++ % 10 + 2));
+    }
+
+    @Benchmark
+    public int resultsCount()
+    {
+        return resultsPage.getResultsCount();
+    }
+}
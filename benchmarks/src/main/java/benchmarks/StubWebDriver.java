@@ -0,0 +1,297 @@
+package benchmarks;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In memory driver answering every command immediately, used to measure the framework overhead without a browser.
+ * <p>
+ * Every click starts a new page: the elements found before the click become stale, as they would after a navigation.
+ */
+public class StubWebDriver implements WebDriver, JavascriptExecutor {
+    /**
+     * The number of elements returned by findElements.
+     */
+    private final int elementsPerQuery;
+    /**
+     * The current page, incremented by every click.
+     */
+    private int page = 0;
+
+    public StubWebDriver(int elementsPerQuery)
+    {
+        this.elementsPerQuery = elementsPerQuery;
+    }
+
+    @Override
+    public void get(String url)
+    {
+        page++;
+    }
+
+    @Override
+    public String getCurrentUrl()
+    {
+        return "about:blank#" + page;
+    }
+
+    @Override
+    public String getTitle()
+    {
+        return "stub";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by)
+    {
+        List<WebElement> elements = new ArrayList<>(elementsPerQuery);
+        for (int i = 0; i < elementsPerQuery; i++) {
+            elements.add(new StubElement(page));
+        }
+        return elements;
+    }
+
+    @Override
+    public WebElement findElement(By by)
+    {
+        return new StubElement(page);
+    }
+
+    @Override
+    public String getPageSource()
+    {
+        return "<html></html>";
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    @Override
+    public void quit()
+    {
+    }
+
+    @Override
+    public Set<String> getWindowHandles()
+    {
+        return Collections.singleton("stub");
+    }
+
+    @Override
+    public String getWindowHandle()
+    {
+        return "stub";
+    }
+
+    @Override
+    public TargetLocator switchTo()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Answer the scripts of the framework with the shapes a browser returns:
+     * <ul>
+     *     <li>the {@link pages.DomQuery} script: a list of maps with the count, texts and attributes of every spec
+     *     <li>the document token of {@link pages.ElementCache}: a string changing with the page
+     *     <li>the DOM quiet check of {@link utils.Waits}: true, the stub DOM never changes
+     *     <li>any other script, e.g. a scroll: null
+     * </ul>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object executeScript(String script, Object... args)
+    {
+        if (script.contains("XPathResult")) {
+            List<Object> answers = new ArrayList<>();
+            for (Map<String, Object> spec : (List<Map<String, Object>>) args[0]) {
+                answers.add(domQueryAnswer(spec));
+            }
+            return answers;
+        }
+        if (script.contains("__elementCacheDocument")) {
+            return "page-" + page;
+        }
+        if (script.contains("__waitsObserver")) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args)
+    {
+        return executeScript(script, args);
+    }
+
+    /**
+     * Build the answer of one DomQuery spec: every query matches {@code elementsPerQuery} elements.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> domQueryAnswer(Map<String, Object> spec)
+    {
+        Map<String, Object> answer = new HashMap<>();
+        answer.put("count", (long) elementsPerQuery);
+        if (Boolean.TRUE.equals(spec.get("texts"))) {
+            answer.put("texts", Collections.nCopies(elementsPerQuery, "result"));
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        for (String attribute : (List<String>) spec.get("attributes")) {
+            attributes.put(attribute, Collections.nCopies(elementsPerQuery, (Object) null));
+        }
+        answer.put("attributes", attributes);
+        return answer;
+    }
+
+    /**
+     * Element which is visible and enabled until the next click of the driver.
+     */
+    private class StubElement implements WebElement {
+        private final int elementPage;
+
+        StubElement(int elementPage)
+        {
+            this.elementPage = elementPage;
+        }
+
+        private void checkNotStale()
+        {
+            if (elementPage != page) {
+                throw new StaleElementReferenceException("stub page changed");
+            }
+        }
+
+        @Override
+        public void click()
+        {
+            checkNotStale();
+            page++;
+        }
+
+        @Override
+        public void submit()
+        {
+            click();
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend)
+        {
+            checkNotStale();
+        }
+
+        @Override
+        public void clear()
+        {
+            checkNotStale();
+        }
+
+        @Override
+        public String getTagName()
+        {
+            return "a";
+        }
+
+        @Override
+        public String getAttribute(String name)
+        {
+            return null;
+        }
+
+        @Override
+        public boolean isSelected()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            checkNotStale();
+            return true;
+        }
+
+        @Override
+        public String getText()
+        {
+            return "result";
+        }
+
+        @Override
+        public List<WebElement> findElements(By by)
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public WebElement findElement(By by)
+        {
+            return this;
+        }
+
+        @Override
+        public boolean isDisplayed()
+        {
+            checkNotStale();
+            return true;
+        }
+
+        @Override
+        public Point getLocation()
+        {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize()
+        {
+            return new Dimension(10, 10);
+        }
+
+        @Override
+        public Rectangle getRect()
+        {
+            return new Rectangle(getLocation(), getSize());
+        }
+
+        @Override
+        public String getCssValue(String propertyName)
+        {
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
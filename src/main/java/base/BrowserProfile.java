@@ -0,0 +1,225 @@
+package base;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import utils.TestConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BrowserProfile is the launch profile applied to the local browser sessions, it is responsible to:
+ * <ul>
+ *     <li>Run the browser headless with a fixed viewport
+ *     <li>Disable the GPU, the extensions and the background networking
+ *     <li>Set the page load strategy
+ *     <li>Block images, fonts and third party hosts through the DevTools protocol, or through the preferences and
+ *     a proxy script on Firefox
+ * </ul>
+ * <p>
+ * The profile is selected in the properties file with {@code BrowserProfile.<BrowserType>} or {@code BrowserProfile},
+ * and its settings are read from the {@code profile.<name>.<setting>} keys. The {@code default} profile keeps
+ * the headed, maximized browser.
+ */
+public class BrowserProfile {
+    /**
+     * The name of the profile.
+     */
+    public final String name;
+    /**
+     * Run the browser without a window.
+     */
+    public final boolean headless;
+    /**
+     * The fixed viewport, null to maximize the window.
+     */
+    public final Dimension windowSize;
+    /**
+     * Disable the GPU, the extensions and the background networking.
+     */
+    public final boolean trimmed;
+    /**
+     * The page load strategy: normal, eager or none.
+     */
+    public final PageLoadStrategy pageLoadStrategy;
+    /**
+     * Block the images.
+     */
+    public final boolean blockImages;
+    /**
+     * Block the web fonts.
+     */
+    public final boolean blockFonts;
+    /**
+     * The hosts blocked by the browser, e.g. ad and analytics hosts.
+     */
+    public final List<String> blockedHosts;
+
+    private BrowserProfile(String name, TestConfig config)
+    {
+        String prefix = "profile." + name + ".";
+        this.name = name;
+        this.headless = config.getBoolean(prefix + "headless", false);
+        String size = config.get(prefix + "windowSize", null);
+        if (size == null) {
+            this.windowSize = null;
+        } else {
+            String[] parts = size.toLowerCase().split("x");
+            this.windowSize = new Dimension(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        this.trimmed = config.getBoolean(prefix + "trimmed", false);
+        this.pageLoadStrategy = PageLoadStrategy.fromString(config.get(prefix + "pageLoadStrategy", "normal"));
+        this.blockImages = config.getBoolean(prefix + "blockImages", false);
+        this.blockFonts = config.getBoolean(prefix + "blockFonts", false);
+        String hosts = config.get(prefix + "blockedHosts", "");
+        List<String> blocked = new ArrayList<>();
+        for (String host : hosts.split(",")) {
+            if (!host.trim().isEmpty()) {
+                blocked.add(host.trim());
+            }
+        }
+        this.blockedHosts = Collections.unmodifiableList(blocked);
+    }
+
+    /**
+     * Get the profile selected for a browser type.
+     * @param browserType the browser type
+     * @return the profile
+     */
+    public static BrowserProfile forBrowser(String browserType)
+    {
+        TestConfig config = TestConfig.get();
+        String name = config.get("BrowserProfile." + browserType, config.get("BrowserProfile", "default"));
+        return new BrowserProfile(name, config);
+    }
+
+    /**
+     * Apply the profile to the options of Chrome or Edge.
+     * @param options the browser options
+     */
+    public void apply(ChromiumOptions<?> options)
+    {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        if (windowSize != null) {
+            options.addArguments("--window-size=" + windowSize.getWidth() + "," + windowSize.getHeight());
+        }
+        if (trimmed) {
+            options.addArguments("--disable-gpu", "--disable-extensions", "--disable-background-networking",
+                    "--disable-background-timer-throttling", "--disable-default-apps", "--disable-sync",
+                    "--no-first-run", "--mute-audio", "--disable-dev-shm-usage");
+        }
+        if (blockImages) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+    }
+
+    /**
+     * Apply the profile to the options of Firefox.
+     * @param options the browser options
+     */
+    public void apply(FirefoxOptions options)
+    {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("-headless");
+        }
+        if (windowSize != null) {
+            options.addArguments("--width=" + windowSize.getWidth(), "--height=" + windowSize.getHeight());
+        }
+        if (trimmed) {
+            options.addPreference("extensions.enabled", false);
+            options.addPreference("app.update.enabled", false);
+            options.addPreference("browser.safebrowsing.malware.enabled", false);
+            options.addPreference("browser.safebrowsing.phishing.enabled", false);
+            options.addPreference("network.prefetch-next", false);
+            options.addPreference("datareporting.healthreport.uploadEnabled", false);
+        }
+        if (blockImages) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (blockFonts) {
+            options.addPreference("browser.display.use_document_fonts", 0);
+        }
+        if (!blockedHosts.isEmpty()) {
+            options.addPreference("network.proxy.type", 2);
+            options.addPreference("network.proxy.autoconfig_url", "data:application/x-ns-proxy-autoconfig;base64,"
+                    + Base64.getEncoder().encodeToString(proxyScript().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Build the proxy script blocking the hosts on Firefox: the blocked hosts and their subdomains go through
+     * a proxy on the discard port, which refuses the connection, the other hosts are reached directly.
+     * @return the proxy auto-config script
+     */
+    private String proxyScript()
+    {
+        StringBuilder script = new StringBuilder("function FindProxyForURL(url, host) {\n");
+        for (String host : blockedHosts) {
+            script.append("  if (host == '").append(host).append("' || dnsDomainIs(host, '.").append(host)
+                    .append("')) return 'PROXY 127.0.0.1:9';\n");
+        }
+        return script.append("  return 'DIRECT';\n}\n").toString();
+    }
+
+    /**
+     * Apply the settings which need a running session: the window and the blocked URLs.
+     * @param driver the new session
+     */
+    public void applyToSession(WebDriver driver)
+    {
+        if (windowSize != null) {
+            driver.manage().window().setSize(windowSize);
+        } else if (!headless) {
+            driver.manage().window().maximize();
+        }
+        List<String> patterns = blockedUrlPatterns();
+        if (!patterns.isEmpty() && driver instanceof ChromiumDriver) {
+            ChromiumDriver chromium = (ChromiumDriver) driver;
+            chromium.executeCdpCommand("Network.enable", new HashMap<>());
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("urls", patterns);
+            chromium.executeCdpCommand("Network.setBlockedURLs", parameters);
+        }
+    }
+
+    /**
+     * @return the URL patterns blocked through the DevTools protocol
+     */
+    private List<String> blockedUrlPatterns()
+    {
+        List<String> patterns = new ArrayList<>();
+        if (blockImages) {
+            patterns.addAll(Arrays.asList("*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico"));
+        }
+        if (blockFonts) {
+            patterns.addAll(Arrays.asList("*.woff", "*.woff2", "*.ttf", "*.otf"));
+        }
+        for (String host : blockedHosts) {
+            patterns.add("*://" + host + "/*");
+            patterns.add("*://*." + host + "/*");
+        }
+        return patterns;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
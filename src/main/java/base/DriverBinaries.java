@@ -0,0 +1,101 @@
+package base;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import utils.TestConfig;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DriverBinaries resolves the local driver binaries once per JVM, it supports:
+ * <ul>
+ *     <li>Offline mode: the binary path is read from {@code DriverBinary.<browser>} and WebDriverManager is not used
+ *     <li>Online mode: WebDriverManager resolves the binary once per JVM, and its on disk resolution cache, keyed by
+ *     the browser version, avoids the network lookup on the next runs of the same machine
+ * </ul>
+ * The online mode is tuned with {@code DriverCachePath} and {@code DriverCacheTtlSeconds},
+ * and {@code DriverOffline=true} fails fast when a binary path is missing instead of reaching the network.
+ */
+public class DriverBinaries {
+    /**
+     * The resolved binary paths keyed by browser name.
+     */
+    private static final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve the driver binary of a browser, only the first call of the JVM does the work.
+     * @param browser chrome, firefox or edge
+     * @return the path of the driver binary
+     */
+    public static String setup(String browser)
+    {
+        return resolved.computeIfAbsent(browser.toLowerCase(), DriverBinaries::resolve);
+    }
+
+    /**
+     * Resolve the driver binary from the configuration or through WebDriverManager.
+     * @param browser chrome, firefox or edge
+     * @return the path of the driver binary
+     */
+    private static String resolve(String browser)
+    {
+        TestConfig config = TestConfig.get();
+        String configured = config.get("DriverBinary." + browser, null);
+        if (configured != null) {
+            if (!new File(configured).canExecute()) {
+                throw new IllegalStateException("The " + browser + " driver binary " + configured + " is not executable");
+            }
+            System.setProperty(systemProperty(browser), configured);
+            System.out.println("Using the pre-provisioned " + browser + " driver " + configured);
+            return configured;
+        }
+        if (config.getBoolean("DriverOffline", false)) {
+            throw new IllegalStateException("DriverOffline is enabled but DriverBinary." + browser + " is not configured");
+        }
+        WebDriverManager manager = manager(browser)
+                .ttl(config.getInt("DriverCacheTtlSeconds", 86400))
+                .ttlBrowsers(config.getInt("DriverCacheTtlSeconds", 86400));
+        String cachePath = config.get("DriverCachePath", null);
+        if (cachePath != null) {
+            manager.cachePath(cachePath).resolutionCachePath(cachePath);
+        }
+        manager.setup();
+        System.out.println("Resolved the " + browser + " driver " + manager.getDownloadedDriverPath());
+        return manager.getDownloadedDriverPath();
+    }
+
+    /**
+     * @return the WebDriverManager of a browser
+     */
+    private static WebDriverManager manager(String browser)
+    {
+        switch (browser) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            default:
+                throw new IllegalArgumentException("Unsupported browser " + browser);
+        }
+    }
+
+    /**
+     * @return the system property read by selenium to locate the driver binary of a browser
+     */
+    private static String systemProperty(String browser)
+    {
+        switch (browser) {
+            case "chrome":
+                return "webdriver.chrome.driver";
+            case "firefox":
+                return "webdriver.gecko.driver";
+            case "edge":
+                return "webdriver.edge.driver";
+            default:
+                throw new IllegalArgumentException("Unsupported browser " + browser);
+        }
+    }
+}
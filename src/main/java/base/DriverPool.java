@@ -0,0 +1,197 @@
+package base;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import pages.ElementCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * DriverPool owns the browser sessions used by the test cases, it is responsible to:
+ * <ul>
+ *     <li>Bind one driver session to every worker thread
+ *     <li>Keep a bounded pool of warm sessions that can be reused by the next test
+ *     <li>Reset a session between tests instead of quitting and relaunching it
+ *     <li>Clear the state of a session kept across tests, see {@link SessionScope}
+ *     <li>Quit all the sessions when the JVM exits
+ * </ul>
+ */
+public class DriverPool {
+    /**
+     * The driver session bound to the current worker thread.
+     */
+    private static final ThreadLocal<WebDriver> current = new ThreadLocal<>();
+    /**
+     * The warm sessions waiting to be reused.
+     */
+    private static final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+    /**
+     * Every session created by the pool, idle or in use.
+     */
+    private static final Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+    /**
+     * The maximum number of warm sessions kept in the pool.
+     */
+    private static volatile int maxIdle = Runtime.getRuntime().availableProcessors();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+    }
+
+    /**
+     * Set the maximum number of warm sessions kept in the pool.
+     * @param size the pool size
+     */
+    public static void setMaxIdle(int size)
+    {
+        maxIdle = Math.max(0, size);
+    }
+
+    /**
+     * Bind a session to the current thread, reusing a warm one when available.
+     * @param factory creates a new session when the pool is empty
+     * @return the driver bound to the current thread
+     */
+    public static WebDriver acquire(Supplier<WebDriver> factory)
+    {
+        WebDriver driver = current.get();
+        if (driver != null) {
+            return driver;
+        }
+        driver = idle.poll();
+        if (driver == null) {
+            driver = factory.get();
+            sessions.add(driver);
+        }
+        current.set(driver);
+        return driver;
+    }
+
+    /**
+     * Get the driver bound to the current thread.
+     * @return the driver or null if the thread has no session
+     */
+    public static WebDriver current()
+    {
+        return current.get();
+    }
+
+    /**
+     * Reset the session of the current thread and return it to the pool,
+     * the session is quit if the reset fails or the pool is full.
+     */
+    public static void release()
+    {
+        WebDriver driver = current.get();
+        current.remove();
+        if (driver == null) {
+            return;
+        }
+        if (!reset(driver) || idle.size() >= maxIdle || !idle.offer(driver)) {
+            quit(driver);
+        }
+    }
+
+    /**
+     * Quit the session of the current thread without returning it to the pool.
+     */
+    public static void discard()
+    {
+        WebDriver driver = current.get();
+        current.remove();
+        if (driver != null) {
+            quit(driver);
+        }
+    }
+
+    /**
+     * Clear the browser state then navigate to a blank page.
+     * @param driver the session to reset
+     * @return true if the session is healthy and can be reused
+     */
+    public static boolean reset(WebDriver driver)
+    {
+        if (!clearState(driver)) {
+            return false;
+        }
+        try {
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("Failed to reset the driver session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Clear the cookies and the web storage of a session without leaving the current page.
+     * Chromium sessions clear every cookie and the storage of the current origin through the DevTools protocol,
+     * the other sessions clear the cookies of the current domain and the web storage through JavaScript.
+     * @param driver the session to clear
+     * @return true if the session is healthy and can be reused
+     */
+    public static boolean clearState(WebDriver driver)
+    {
+        try {
+            if (driver instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+                Object origin = driver instanceof JavascriptExecutor
+                        ? ((JavascriptExecutor) driver).executeScript("return window.location.origin;") : null;
+                if (origin != null && origin.toString().startsWith("http")) {
+                    Map<String, Object> parameters = new HashMap<>();
+                    parameters.put("origin", origin.toString());
+                    parameters.put("storageTypes", "local_storage,indexeddb,cache_storage,service_workers");
+                    cdp.executeCdpCommand("Storage.clearDataForOrigin", parameters);
+                }
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+            if (driver instanceof JavascriptExecutor) {
+                try {
+                    ((JavascriptExecutor) driver).executeScript(
+                            "window.localStorage.clear(); window.sessionStorage.clear();");
+                } catch (RuntimeException e) {
+                    // storage is not accessible on some origins such as about:blank
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("Failed to clear the driver session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quit every session created by the pool.
+     */
+    public static void shutdown()
+    {
+        idle.clear();
+        for (WebDriver driver : sessions) {
+            quit(driver);
+        }
+    }
+
+    /**
+     * Quit a session and forget it.
+     * @param driver the session to quit
+     */
+    private static void quit(WebDriver driver)
+    {
+        sessions.remove(driver);
+        ElementCache.forget(driver);
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            System.out.println("Failed to quit the driver session: " + e.getMessage());
+        }
+    }
+}
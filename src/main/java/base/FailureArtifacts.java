@@ -0,0 +1,188 @@
+package base;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import utils.TestConfig;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * FailureArtifacts captures the state of the browser when a test fails and attaches it to the Allure report.
+ * <p>
+ * The test thread only grabs the raw bytes: the screenshot, and optionally the DOM snapshot and the browser console log.
+ * The attachments are registered on the running test, then the bytes are compressed and written by a bounded background
+ * executor so the driver can be released right away. When the queue is full the test thread does the work itself.
+ * The following keys of the configuration file tune the pipeline:
+ * <ul>
+ *     <li>ScreenshotFormat: jpeg to recompress the screenshots, png to keep them as captured
+ *     <li>ScreenshotQuality: the jpeg quality from 0 to 1
+ *     <li>CaptureDomSnapshot and CaptureConsoleLog: the optional artifacts
+ *     <li>ArtifactThreads and ArtifactQueueSize: the size of the background executor
+ * </ul>
+ */
+public class FailureArtifacts {
+    /**
+     * The background executor compressing and writing the artifacts.
+     */
+    private static final ThreadPoolExecutor executor;
+    /**
+     * Tracks the artifacts not written yet.
+     */
+    private static final Phaser pending = new Phaser(1);
+    /**
+     * The phase the flushing party has already arrived at, a flush timing out leaves it arrived until the phase ends.
+     */
+    private static int flushedPhase = -1;
+
+    static {
+        int threads = TestConfig.get().getInt("ArtifactThreads", 2);
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(TestConfig.get().getInt("ArtifactQueueSize", 64)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "failure-artifacts");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(Duration.ofSeconds(30)), "failure-artifacts-flush"));
+    }
+
+    /**
+     * Capture the artifacts of a failed test and attach them to the running test.
+     * @param driver the session of the failed test
+     */
+    public static void capture(WebDriver driver)
+    {
+        TestConfig config = TestConfig.get();
+        if (driver instanceof TakesScreenshot) {
+            try {
+                byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                boolean jpeg = config.get("ScreenshotFormat", "jpeg").equalsIgnoreCase("jpeg");
+                float quality = Float.parseFloat(config.get("ScreenshotQuality", "0.7"));
+                attach("Page ScreenShot", jpeg ? "image/jpeg" : "image/png", jpeg ? "jpg" : "png",
+                        () -> jpeg ? toJpeg(png, quality) : png);
+            } catch (RuntimeException e) {
+                System.out.println("Failed to take the screenshot: " + e.getMessage());
+            }
+        }
+        if (config.getBoolean("CaptureDomSnapshot", true)) {
+            try {
+                String source = driver.getPageSource();
+                attach("Page Source", "text/html", "html", () -> source.getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                System.out.println("Failed to capture the page source: " + e.getMessage());
+            }
+        }
+        if (config.getBoolean("CaptureConsoleLog", true)) {
+            try {
+                Iterable<LogEntry> entries = driver.manage().logs().get(LogType.BROWSER);
+                attach("Browser Console", "text/plain", "txt", () -> {
+                    StringBuilder log = new StringBuilder();
+                    for (LogEntry entry : entries) {
+                        log.append(entry).append(System.lineSeparator());
+                    }
+                    return log.toString().getBytes(StandardCharsets.UTF_8);
+                });
+            } catch (RuntimeException e) {
+                // not every driver exposes the browser log
+            }
+        }
+    }
+
+    /**
+     * Wait until every captured artifact is written, the flushing party arrives once per phase so a flush following
+     * a timed out one, e.g. from the shutdown hook, only waits again.
+     * @param timeout the maximum time to wait
+     */
+    public static synchronized void flush(Duration timeout)
+    {
+        int phase = pending.getPhase();
+        if (phase != flushedPhase) {
+            phase = pending.arrive();
+            flushedPhase = phase;
+        }
+        try {
+            pending.awaitAdvanceInterruptibly(phase, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            System.out.println("Some failure artifacts were not written after " + timeout + ".");
+        }
+    }
+
+    /**
+     * Register an attachment on the running test and write its content in the background.
+     */
+    private static void attach(String name, String type, String extension, ArtifactContent content)
+    {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String source = lifecycle.prepareAttachment(name, type, extension);
+        pending.register();
+        executor.execute(() -> {
+            try {
+                lifecycle.writeAttachment(source, new ByteArrayInputStream(content.bytes()));
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Failed to write the attachment " + name + ": " + e.getMessage());
+            } finally {
+                pending.arriveAndDeregister();
+            }
+        });
+    }
+
+    /**
+     * Recompress a PNG screenshot as JPEG.
+     * @param png the PNG bytes
+     * @param quality the JPEG quality from 0 to 1
+     * @return the JPEG bytes, or the PNG bytes if they can not be decoded
+     * @throws IOException if the image can not be encoded
+     */
+    static byte[] toJpeg(byte[] png, float quality) throws IOException
+    {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(image, 0, 0, null);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 4);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Produces the bytes of an attachment on the background executor.
+     */
+    private interface ArtifactContent {
+        byte[] bytes() throws IOException;
+    }
+}
@@ -0,0 +1,249 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import utils.ReplayArchive;
+import utils.TestConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FetchReplay records the responses of the pages under test and replays them, it is responsible to:
+ * <ul>
+ *     <li>Record: let the requests reach the site and copy every response to the replay archive
+ *     <li>Replay: answer every request from the replay archive without reaching the network
+ * </ul>
+ * The requests are intercepted with the DevTools Fetch domain, so the mode only works on the Chromium browsers.
+ * The following keys of the configuration file select the mode:
+ * <ul>
+ *     <li>ReplayMode: off, record or replay
+ *     <li>ReplayArchive: the archive file, see {@link ReplayArchive}
+ *     <li>ReplayStrict: fail the requests missing from the archive instead of sending them to the network
+ *     <li>ReplayIgnoredParams: the query parameters which change on every request and are ignored in the keys
+ * </ul>
+ */
+public class FetchReplay {
+    /**
+     * The response headers which do not apply to the decoded recorded body.
+     */
+    private static final Set<String> DROPPED_HEADERS = new HashSet<>(Arrays.asList(
+            "content-encoding", "content-length", "transfer-encoding"));
+    /**
+     * The archive shared by every session of the run.
+     */
+    private static ReplayArchive archive;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FetchReplay::save, "replay-archive-save"));
+    }
+
+    /**
+     * @return the mode selected by {@code ReplayMode}, off by default
+     */
+    public static String mode()
+    {
+        return TestConfig.get().get("ReplayMode", "off").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Start recording or replaying the requests of a session according to the configured mode.
+     * @param driver the session
+     * @return true if the requests of the session are intercepted
+     */
+    public static boolean attach(WebDriver driver)
+    {
+        String mode = mode();
+        if (mode.equals("off")) {
+            return false;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            System.out.println("Replay mode " + mode + " is not supported by " + driver.getClass().getSimpleName() + ".");
+            return false;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        ReplayArchive replayArchive = archive(mode);
+        Map<String, Object> pattern = new HashMap<>();
+        pattern.put("urlPattern", "*");
+        pattern.put("requestStage", mode.equals("record") ? "Response" : "Request");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("patterns", Collections.singletonList(pattern));
+        devTools.send(new Command<>("Fetch.enable", parameters));
+        Event<Map<String, Object>> paused = new Event<>("Fetch.requestPaused", input -> input.read(Json.MAP_TYPE));
+        if (mode.equals("record")) {
+            devTools.addListener(paused, event -> record(devTools, replayArchive, event));
+        } else {
+            boolean strict = TestConfig.get().getBoolean("ReplayStrict", true);
+            devTools.addListener(paused, event -> replay(devTools, replayArchive, strict, event));
+        }
+        System.out.println("Replay mode " + mode + " with the archive " + archivePath());
+        return true;
+    }
+
+    /**
+     * Write the recorded responses to the archive file, does nothing outside the record mode.
+     */
+    public static synchronized void save()
+    {
+        if (archive == null || !mode().equals("record")) {
+            return;
+        }
+        try {
+            archive.save(archivePath());
+            System.out.println("Recorded " + archive.size() + " responses to " + archivePath());
+        } catch (IOException e) {
+            System.out.println("Failed to save the replay archive " + archivePath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the archive of the run, created empty in record mode and mapped from the file in replay mode.
+     */
+    private static synchronized ReplayArchive archive(String mode)
+    {
+        if (archive == null) {
+            Set<String> ignored = new HashSet<>();
+            for (String parameter : TestConfig.get().get("ReplayIgnoredParams", "").split(",")) {
+                if (!parameter.trim().isEmpty()) {
+                    ignored.add(parameter.trim());
+                }
+            }
+            Path path = archivePath();
+            if (mode.equals("replay")) {
+                try {
+                    archive = ReplayArchive.open(path, ignored);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to open the replay archive " + path, e);
+                }
+            } else if (mode.equals("record")) {
+                archive = ReplayArchive.create(ignored);
+            } else {
+                throw new IllegalArgumentException("Unknown ReplayMode " + mode);
+            }
+        }
+        return archive;
+    }
+
+    private static Path archivePath()
+    {
+        return Paths.get(TestConfig.get().get("ReplayArchive", "src/test/resources/replay/pages.rpl"));
+    }
+
+    /**
+     * Copy a paused response to the archive then let it reach the page.
+     */
+    @SuppressWarnings("unchecked")
+    private static void record(DevTools devTools, ReplayArchive archive, Map<String, Object> event)
+    {
+        String requestId = String.valueOf(event.get("requestId"));
+        try {
+            Map<String, Object> request = (Map<String, Object>) event.get("request");
+            Object status = event.get("responseStatusCode");
+            if (request != null && status instanceof Number && event.get("responseErrorReason") == null) {
+                List<String[]> headers = new ArrayList<>();
+                if (event.get("responseHeaders") instanceof List) {
+                    for (Object header : (List<Object>) event.get("responseHeaders")) {
+                        Map<String, Object> pair = (Map<String, Object>) header;
+                        String name = String.valueOf(pair.get("name"));
+                        if (!DROPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                            headers.add(new String[]{name, String.valueOf(pair.get("value"))});
+                        }
+                    }
+                }
+                archive.put(String.valueOf(request.get("method")), String.valueOf(request.get("url")),
+                        ((Number) status).intValue(), headers, body(devTools, requestId));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Failed to record a response: " + e.getMessage());
+        } finally {
+            continueRequest(devTools, requestId);
+        }
+    }
+
+    /**
+     * Answer a paused request from the archive.
+     */
+    @SuppressWarnings("unchecked")
+    private static void replay(DevTools devTools, ReplayArchive archive, boolean strict, Map<String, Object> event)
+    {
+        String requestId = String.valueOf(event.get("requestId"));
+        Map<String, Object> request = (Map<String, Object>) event.get("request");
+        String url = request == null ? "" : String.valueOf(request.get("url"));
+        ReplayArchive.Entry entry = request == null ? null : archive.get(String.valueOf(request.get("method")), url);
+        try {
+            if (entry != null) {
+                List<Map<String, Object>> headers = new ArrayList<>();
+                for (String[] header : entry.headers) {
+                    Map<String, Object> pair = new HashMap<>();
+                    pair.put("name", header[0]);
+                    pair.put("value", header[1]);
+                    headers.add(pair);
+                }
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("requestId", requestId);
+                parameters.put("responseCode", entry.status);
+                parameters.put("responseHeaders", headers);
+                parameters.put("body", entry.bodyBase64());
+                devTools.send(new Command<>("Fetch.fulfillRequest", parameters));
+            } else if (strict) {
+                System.out.println("Not in the replay archive: " + url);
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("requestId", requestId);
+                parameters.put("errorReason", "InternetDisconnected");
+                devTools.send(new Command<>("Fetch.failRequest", parameters));
+            } else {
+                continueRequest(devTools, requestId);
+            }
+        } catch (WebDriverException e) {
+            System.out.println("Failed to replay " + url + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the decoded body of a paused response, redirects and empty responses have no body.
+     */
+    private static byte[] body(DevTools devTools, String requestId)
+    {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("requestId", requestId);
+        try {
+            Map<String, Object> body = devTools.send(new Command<Map<String, Object>>("Fetch.getResponseBody", parameters,
+                    input -> input.read(Json.MAP_TYPE)));
+            String content = String.valueOf(body.get("body"));
+            return Boolean.TRUE.equals(body.get("base64Encoded"))
+                    ? Base64.getDecoder().decode(content) : content.getBytes(StandardCharsets.UTF_8);
+        } catch (WebDriverException e) {
+            return new byte[0];
+        }
+    }
+
+    private static void continueRequest(DevTools devTools, String requestId)
+    {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("requestId", requestId);
+        try {
+            devTools.send(new Command<>("Fetch.continueRequest", parameters));
+        } catch (WebDriverException e) {
+            System.out.println("Failed to continue a paused request: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,417 @@
+package base;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utils.TestConfig;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GridScheduler creates the remote sessions on one or more selenium grid hubs, it is responsible to:
+ * <ul>
+ *     <li>Queue the session requests behind a fair concurrency limit instead of sending them in bursts
+ *     <li>Poll the {@code /status} endpoint of every hub and only send a request to a hub with a free slot
+ *     for the requested browser, the hub with the most free slots is picked first
+ *     <li>Retry a rejected session request with an exponential backoff until the queue timeout expires
+ *     <li>Give the permit back when the session quits, the sessions themselves are reused by {@link DriverPool}
+ * </ul>
+ * The following keys of the configuration file tune the scheduler:
+ * <ul>
+ *     <li>hubURL: one hub URL or a comma separated list of hub URLs
+ *     <li>GridMaxSessions: the maximum number of remote sessions opened by this JVM
+ *     <li>GridQueueTimeoutSeconds: the maximum time a test waits for its session
+ *     <li>GridStatusTtlMillis: how long a polled hub status is trusted
+ *     <li>GridRetries and GridRetryBackoffMillis: the retries of a rejected session request
+ * </ul>
+ */
+public class GridScheduler {
+    /**
+     * The free slot count of a hub which does not report its nodes, e.g. a selenium 3 hub.
+     */
+    private static final int UNKNOWN_CAPACITY = Integer.MAX_VALUE;
+    /**
+     * The scheduler built from the configuration file.
+     */
+    private static volatile GridScheduler instance;
+
+    /**
+     * The hubs sessions are balanced across.
+     */
+    private final List<Hub> hubs;
+    /**
+     * One permit per remote session this JVM is allowed to open.
+     */
+    private final Semaphore permits;
+    /**
+     * The maximum time to wait for a session.
+     */
+    private final Duration queueTimeout;
+    /**
+     * How long a polled hub status is trusted.
+     */
+    private final Duration statusTtl;
+    /**
+     * The number of retries of a rejected session request.
+     */
+    private final int retries;
+    /**
+     * The delay before the first retry, doubled on every retry.
+     */
+    private final long backoffMillis;
+    /**
+     * The client polling the hub status.
+     */
+    private final HttpClient http;
+    /**
+     * The start of the round robin between the hubs with the same number of free slots.
+     */
+    private final AtomicInteger nextHub = new AtomicInteger();
+
+    /**
+     * Constructs a new GridScheduler.
+     * @param hubUrls the URLs of the hubs
+     * @param maxSessions the maximum number of sessions opened at the same time
+     * @param queueTimeout the maximum time to wait for a session
+     * @param statusTtl how long a polled hub status is trusted
+     * @param retries the number of retries of a rejected session request
+     * @param backoffMillis the delay before the first retry
+     */
+    public GridScheduler(List<URL> hubUrls, int maxSessions, Duration queueTimeout, Duration statusTtl,
+                         int retries, long backoffMillis)
+    {
+        if (hubUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one hub URL is required");
+        }
+        List<Hub> list = new ArrayList<>();
+        for (URL url : hubUrls) {
+            list.add(new Hub(url));
+        }
+        this.hubs = Collections.unmodifiableList(list);
+        this.permits = new Semaphore(Math.max(1, maxSessions), true);
+        this.queueTimeout = queueTimeout;
+        this.statusTtl = statusTtl;
+        this.retries = Math.max(0, retries);
+        this.backoffMillis = Math.max(1, backoffMillis);
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /**
+     * Get the scheduler configured by the configuration file, it is created on first use.
+     * @return the scheduler
+     */
+    public static GridScheduler get()
+    {
+        GridScheduler scheduler = instance;
+        if (scheduler == null) {
+            synchronized (GridScheduler.class) {
+                scheduler = instance;
+                if (scheduler == null) {
+                    scheduler = fromConfig(TestConfig.get());
+                    instance = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Build a scheduler from a configuration snapshot.
+     * @param config the configuration
+     * @return the scheduler
+     */
+    public static GridScheduler fromConfig(TestConfig config)
+    {
+        List<URL> urls = new ArrayList<>();
+        for (String url : config.getHubUrl().split(",")) {
+            if (!url.trim().isEmpty()) {
+                try {
+                    urls.add(new URI(url.trim()).toURL());
+                } catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+                    throw new RuntimeException("Invalid hub URL " + url, e);
+                }
+            }
+        }
+        return new GridScheduler(urls,
+                config.getInt("GridMaxSessions", Runtime.getRuntime().availableProcessors()),
+                Duration.ofSeconds(config.getInt("GridQueueTimeoutSeconds", 300)),
+                Duration.ofMillis(config.getInt("GridStatusTtlMillis", 2000)),
+                config.getInt("GridRetries", 3),
+                config.getInt("GridRetryBackoffMillis", 1000));
+    }
+
+    /**
+     * Open a remote session, waiting for a permit and for a free slot on one of the hubs.
+     * @param capabilities the requested capabilities
+     * @return the session, its permit is given back when it quits
+     * @throws SessionNotCreatedException if no session could be created before the queue timeout
+     */
+    public WebDriver newSession(Capabilities capabilities)
+    {
+        long deadline = System.nanoTime() + queueTimeout.toNanos();
+        try {
+            if (!permits.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SessionNotCreatedException("No remote session permit became available after " + queueTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while waiting for a remote session permit");
+        }
+        boolean created = false;
+        try {
+            WebDriver driver = create(capabilities, deadline);
+            created = true;
+            return driver;
+        } finally {
+            if (!created) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @return the number of sessions which can still be opened without waiting
+     */
+    public int availablePermits()
+    {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Send the session request to the least loaded hub and retry it with backoff when it is rejected.
+     */
+    private WebDriver create(Capabilities capabilities, long deadline)
+    {
+        String browser = capabilities.getBrowserName();
+        int attempt = 0;
+        while (true) {
+            Hub hub = awaitHub(browser, deadline);
+            try {
+                System.out.println("Requesting a " + browser + " session from " + hub.url);
+                return new ScheduledSession(hub, capabilities, () -> {
+                    hub.invalidate();
+                    permits.release();
+                });
+            } catch (WebDriverException e) {
+                hub.invalidate();
+                attempt++;
+                if (attempt > retries || System.nanoTime() >= deadline) {
+                    throw e;
+                }
+                long delay = ThreadLocalRandom.current().nextLong(backoffMillis << Math.min(attempt - 1, 16)) + 1;
+                System.out.println("Session request rejected by " + hub.url + ", retry " + attempt + "/" + retries
+                        + " in " + delay + " ms: " + e.getMessage().split("\n")[0]);
+                pause(delay, deadline);
+            }
+        }
+    }
+
+    /**
+     * Wait until one of the hubs has a free slot for the browser.
+     * @return the hub with the most free slots, the hubs with the same number of free slots take turns
+     */
+    private Hub awaitHub(String browser, long deadline)
+    {
+        while (true) {
+            Hub best = null;
+            int bestFree = 0;
+            int start = Math.floorMod(nextHub.getAndIncrement(), hubs.size());
+            for (int i = 0; i < hubs.size(); i++) {
+                Hub hub = hubs.get((start + i) % hubs.size());
+                int free = hub.freeSlots(browser);
+                if (free > bestFree) {
+                    best = hub;
+                    bestFree = free;
+                }
+            }
+            if (best != null && best.reserve()) {
+                return best;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new SessionNotCreatedException("No grid hub had a free " + browser + " slot after " + queueTimeout);
+            }
+            pause(statusTtl.toMillis(), deadline);
+        }
+    }
+
+    /**
+     * Sleep without passing the deadline.
+     */
+    private static void pause(long millis, long deadline)
+    {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        try {
+            Thread.sleep(Math.max(1, Math.min(millis, remaining)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while waiting for a remote session");
+        }
+    }
+
+    /**
+     * Get the status URL of a hub, the status is served from the root of the hub.
+     */
+    private static URI statusUri(URL url)
+    {
+        String base = url.toString().replaceAll("/+$", "").replaceAll("/wd/hub$", "");
+        return URI.create(base + "/status");
+    }
+
+    /**
+     * Count the free slots for a browser in a grid status answer.
+     * @param status the body of the {@code /status} answer
+     * @param browser the requested browser name
+     * @return the free slots, {@link Integer#MAX_VALUE} if the hub is ready but does not report its nodes
+     */
+    @SuppressWarnings("unchecked")
+    static int freeSlots(String status, String browser)
+    {
+        Map<String, Object> body = new Json().toType(status, Json.MAP_TYPE);
+        Object value = body.get("value");
+        if (!(value instanceof Map)) {
+            return 0;
+        }
+        Map<String, Object> grid = (Map<String, Object>) value;
+        Object nodes = grid.get("nodes");
+        if (!(nodes instanceof List)) {
+            return Boolean.TRUE.equals(grid.get("ready")) ? UNKNOWN_CAPACITY : 0;
+        }
+        int free = 0;
+        for (Object node : (List<Object>) nodes) {
+            Map<String, Object> nodeStatus = (Map<String, Object>) node;
+            if (!"UP".equalsIgnoreCase(String.valueOf(nodeStatus.get("availability")))
+                    || !(nodeStatus.get("slots") instanceof List)) {
+                continue;
+            }
+            for (Object slot : (List<Object>) nodeStatus.get("slots")) {
+                Map<String, Object> slotStatus = (Map<String, Object>) slot;
+                Object stereotype = slotStatus.get("stereotype");
+                String slotBrowser = stereotype instanceof Map
+                        ? String.valueOf(((Map<String, Object>) stereotype).get("browserName")) : "";
+                if (slotStatus.get("session") == null && (browser == null || browser.equalsIgnoreCase(slotBrowser))) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * A hub and the last status polled from it.
+     */
+    private class Hub {
+        private final URL url;
+        private final URI status;
+        private int free;
+        private String freeBrowser;
+        private long polledAt;
+        private boolean polled;
+
+        Hub(URL url)
+        {
+            this.url = url;
+            this.status = statusUri(url);
+        }
+
+        /**
+         * Get the free slots for a browser, the status is polled again when it is older than the status ttl.
+         */
+        synchronized int freeSlots(String browser)
+        {
+            if (!polled || System.nanoTime() - polledAt > statusTtl.toNanos() || !String.valueOf(browser).equals(freeBrowser)) {
+                free = poll(browser);
+                freeBrowser = String.valueOf(browser);
+                polledAt = System.nanoTime();
+                polled = true;
+            }
+            return free;
+        }
+
+        /**
+         * Take one of the free slots so the concurrent requests spread over the hubs before the next poll.
+         */
+        synchronized boolean reserve()
+        {
+            if (free <= 0) {
+                return false;
+            }
+            if (free != UNKNOWN_CAPACITY) {
+                free--;
+            }
+            return true;
+        }
+
+        /**
+         * Poll the status again on the next request.
+         */
+        synchronized void invalidate()
+        {
+            polled = false;
+        }
+
+        private int poll(String browser)
+        {
+            HttpRequest request = HttpRequest.newBuilder(status).timeout(Duration.ofSeconds(5)).GET().build();
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    System.out.println("Hub " + url + " status returned HTTP " + response.statusCode());
+                    return 0;
+                }
+                return GridScheduler.freeSlots(response.body(), browser);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Hub " + url + " is not reachable: " + e.getMessage());
+                return 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A remote session which gives its scheduler permit back when it quits.
+     */
+    private static class ScheduledSession extends RemoteWebDriver {
+        private final Runnable onQuit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ScheduledSession(Hub hub, Capabilities capabilities, Runnable onQuit)
+        {
+            super(hub.url, capabilities);
+            this.onQuit = onQuit;
+        }
+
+        @Override
+        public void quit()
+        {
+            try {
+                super.quit();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    onQuit.run();
+                }
+            }
+        }
+    }
+}
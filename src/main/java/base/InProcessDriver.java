@@ -0,0 +1,49 @@
+package base;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import utils.TestConfig;
+
+/**
+ * The browserless fast path selected with {@code BrowserType=inprocess}.
+ * <p>
+ * The pages are fetched, parsed and scripted inside the JVM by HtmlUnit, so a session costs milliseconds and a few MB
+ * instead of a browser process. Nothing is rendered: the page objects and keywords which depend on the layout,
+ * e.g. scrolling, are marked with {@link pages.RequiresBrowser} and skipped on an in-process session.
+ */
+public class InProcessDriver {
+    /**
+     * The browser type selecting the in-process driver.
+     */
+    public static final String BROWSER_TYPE = "inprocess";
+
+    /**
+     * Create an in-process session with JavaScript enabled.
+     * {@code InProcessJavaScript=false} disables JavaScript for the pages which do not need it.
+     * @return the session
+     */
+    public static WebDriver create()
+    {
+        HtmlUnitDriver driver = new HtmlUnitDriver(BrowserVersion.CHROME,
+                TestConfig.get().getBoolean("InProcessJavaScript", true));
+        driver.getWebClient().getOptions().setCssEnabled(false);
+        driver.getWebClient().getOptions().setThrowExceptionOnScriptError(false);
+        return driver;
+    }
+
+    /**
+     * Check if a session runs in process, the session may be wrapped by a listener decorator.
+     * @param driver the session
+     * @return true if the session is an in-process session
+     */
+    public static boolean isInProcess(WebDriver driver)
+    {
+        if (driver instanceof HtmlUnitDriver) {
+            return true;
+        }
+        return driver instanceof HasCapabilities
+                && "htmlunit".equalsIgnoreCase(((HasCapabilities) driver).getCapabilities().getBrowserName());
+    }
+}
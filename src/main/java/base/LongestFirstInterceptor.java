@@ -0,0 +1,74 @@
+package base;
+
+import metrics.DurationEstimates;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+import utils.TestImpact;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the test methods longest first from their recorded durations when {@code ScheduleOrder=longest-first},
+ * see {@link DurationEstimates}.
+ * <p>
+ * The methods which failed last time run first when {@code ScheduleFailedFirst=true}, the priorities of the methods
+ * are kept and a method without history is estimated by the median of the known methods, twice for a data driven one.
+ * The rows of the data driven methods are ordered the same way by {@link utils.DataProvider#fetchData(String, String, Class)}.
+ */
+public class LongestFirstInterceptor implements IMethodInterceptor {
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context)
+    {
+        if (!DurationEstimates.isEnabled() || methods.size() < 2) {
+            return methods;
+        }
+        Map<IMethodInstance, Long> estimates = new HashMap<>();
+        List<Long> known = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            Long estimate = DurationEstimates.method(instance.getMethod().getQualifiedName());
+            estimates.put(instance, estimate);
+            if (estimate != null) {
+                known.add(estimate);
+            }
+        }
+        long fallback = known.isEmpty() ? DurationEstimates.defaultMillis() : DurationEstimates.median(known);
+        for (IMethodInstance instance : methods) {
+            if (estimates.get(instance) == null) {
+                estimates.put(instance, instance.getMethod().isDataDriven() ? 2 * fallback : fallback);
+            }
+        }
+        List<IMethodInstance> ordered = DurationEstimates.longestFirst(methods, estimates::get, null,
+                DurationEstimates.failedFirst()
+                        ? instance -> TestImpact.methodFailedLastTime(instance.getMethod().getQualifiedName()) : null);
+        ordered.sort(Comparator.comparingInt(instance -> instance.getMethod().getPriority()));
+        int workers = workers(context);
+        System.out.println("Longest-first order of " + ordered.size() + " methods on " + workers + " workers, predicted "
+                + DurationEstimates.makespan(durations(ordered, estimates), workers) + " ms instead of "
+                + DurationEstimates.makespan(durations(methods, estimates), workers) + " ms in declaration order.");
+        return ordered;
+    }
+
+    /**
+     * @return the number of methods run at the same time by the suite
+     */
+    private static int workers(ITestContext context)
+    {
+        XmlSuite suite = context.getSuite().getXmlSuite();
+        return suite.getParallel() != null && suite.getParallel().isParallel() ? Math.max(1, suite.getThreadCount()) : 1;
+    }
+
+    private static List<Long> durations(List<IMethodInstance> methods, Map<IMethodInstance, Long> estimates)
+    {
+        List<Long> durations = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            durations.add(estimates.get(instance));
+        }
+        return durations;
+    }
+}
@@ -0,0 +1,76 @@
+package base;
+
+import org.testng.ITestResult;
+import utils.TestConfig;
+
+import java.util.Locale;
+
+/**
+ * The lifetime of the browser session bound to a worker thread, selected by {@code SessionScope} in the
+ * configuration file:
+ * <ul>
+ *     <li>method: the session goes back to the {@link DriverPool} after every test
+ *     <li>data-provider: the session is kept across the rows of a data driven test
+ *     <li>class: the session is kept across the tests of a test class instance
+ *     <li>thread: the session is kept by the worker thread for the whole suite
+ * </ul>
+ * Inside a scope only the browser state is cleared between two tests, see {@link DriverPool#clearState}.
+ * A failed test always quits its session so its state can not leak into the next test.
+ */
+public enum SessionScope {
+    METHOD("method"),
+    DATA_PROVIDER("data-provider"),
+    CLASS("class"),
+    THREAD("thread");
+
+    /**
+     * The name used in the configuration file.
+     */
+    private final String name;
+
+    SessionScope(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * @return the scope selected by the configuration file, method by default
+     */
+    public static SessionScope current()
+    {
+        String value = TestConfig.get().get("SessionScope", "method").trim().toLowerCase(Locale.ROOT);
+        for (SessionScope scope : values()) {
+            if (scope.name.equals(value) || scope.name().toLowerCase(Locale.ROOT).equals(value)) {
+                return scope;
+            }
+        }
+        throw new IllegalArgumentException("Unknown SessionScope " + value);
+    }
+
+    /**
+     * Get the key shared by the tests allowed to run on the same session.
+     * @param testResult the test about to run
+     * @return the scope key, two tests with different keys never share a session
+     */
+    public String keyOf(ITestResult testResult)
+    {
+        Object instance = testResult.getInstance();
+        String instanceId = instance == null ? "" : "@" + System.identityHashCode(instance);
+        switch (this) {
+            case DATA_PROVIDER:
+                return testResult.getMethod().getQualifiedName() + instanceId;
+            case CLASS:
+                return testResult.getTestClass().getName() + instanceId;
+            case THREAD:
+                return "thread";
+            default:
+                return testResult.getMethod().getQualifiedName() + "#" + System.identityHashCode(testResult);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
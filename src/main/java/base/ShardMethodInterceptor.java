@@ -0,0 +1,35 @@
+package base;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import utils.Sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the test methods of the current shard.
+ * <p>
+ * Methods without a data provider are assigned to one shard by name, methods with a data provider run in every shard
+ * because their rows are partitioned by {@link utils.DataProvider#fetchData}.
+ */
+public class ShardMethodInterceptor implements IMethodInterceptor {
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context)
+    {
+        if (!Sharding.isEnabled()) {
+            return methods;
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            if (method.isDataDriven() || Sharding.owns(method.getQualifiedName())) {
+                selected.add(instance);
+            }
+        }
+        System.out.println("Shard " + Sharding.index() + "/" + Sharding.count() + " runs " + selected.size() + " of " + methods.size() + " methods.");
+        return selected;
+    }
+}
@@ -1,9 +1,10 @@
 package base;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-import io.qameta.allure.Allure;
 import io.qameta.allure.Step;
-import org.apache.commons.io.FileUtils;
+import metrics.MetricsListener;
+import metrics.NetworkCapture;
+import metrics.PerformanceGate;
+import metrics.StepMetrics;
 import org.asynchttpclient.uri.Uri;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Platform;
@@ -14,25 +15,29 @@ import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
-import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import pages.ElementCache;
 import utils.Constants;
+import utils.TestConfig;
+import utils.TestImpact;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
 
 /**
  * TestBase class is the class which contain the methods which will be used
@@ -45,36 +50,51 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * TestBase also responsible for:
  * <ul>
- *     <li>configure the drivers properties based on the selected driver
- *     <li>Create drivers instances
- *     <li>Create property file reader
+ *     <li>configure the drivers properties based on the selected driver, see {@link DriverBinaries}
+ *     <li>Create drivers instances and bind them to the worker threads through {@link DriverPool}
+ *     <li>Keep the sessions across tests according to the configured {@link SessionScope}
+ *     <li>Expose the cached configuration snapshot to the legacy callers
  *     <li>Take screenshot in case of failure
+ *     <li>Compare the test and step durations with their baseline, see {@link PerformanceGate}
+ *     <li>Run the longest test methods first, see {@link LongestFirstInterceptor}
  * </ul>
  */
+@Listeners({ShardMethodInterceptor.class, LongestFirstInterceptor.class, PerformanceGate.class})
 public class TestBase {
-    public static WebDriver driver;
+    /**
+     * @deprecated use {@link TestConfig#get()}
+     */
+    @Deprecated
     public static Properties property;
     public static String configPath = Constants.configPath;
+    /**
+     * The scope key of the session kept by the current thread, see {@link SessionScope}.
+     */
+    private static final ThreadLocal<String> sessionKey = new ThreadLocal<>();
 
     static {
         property = initializePropertyFile();
+        DriverPool.setMaxIdle(TestConfig.get().getInt("DriverPoolSize", Runtime.getRuntime().availableProcessors()));
+    }
 
+    /**
+     * Get the driver session bound to the current thread
+     * @return driver
+     */
+    public static WebDriver getDriver()
+    {
+        return DriverPool.current();
     }
 
     /**
-     *load data from properties file to read data from
+     *load data from properties file to read data from, the file is parsed once and cached by {@link TestConfig}
      * @return property
+     * @deprecated use {@link TestConfig#get()}
      */
+    @Deprecated
     public static Properties initializePropertyFile()
     {
-        property = new Properties();
-        try {
-            InputStream stream = new FileInputStream(configPath);
-            property.load(stream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return property;
+        return TestConfig.get().asProperties();
     }
 
     /**
@@ -85,87 +105,155 @@ public class TestBase {
      *              <li>Chrome Driver
      *              <li>FireFix Driver
      *              <li>Microsoft Edge
+     *              <li>In-process HTML driver without a browser, see {@link InProcessDriver}
      *          </ul>
-     *      <li>Driver Options.
+     *      <li>Driver Options and the launch profile, see {@link BrowserProfile}.
      * </ul>
+     * @return driver
      */
-    public static void localExecutionSetup(){
-        if(initializePropertyFile().getProperty("BrowserType").equalsIgnoreCase("FireFox")) {
-            WebDriverManager.firefoxdriver().setup();
-            driver = new FirefoxDriver();
+    public static WebDriver localExecutionSetup(){
+        WebDriver driver = null;
+        String browserType = TestConfig.get().getBrowserType();
+        if (browserType.equalsIgnoreCase(InProcessDriver.BROWSER_TYPE)) {
+            System.out.println("Launching the in-process driver");
+            return InProcessDriver.create();
+        }
+        BrowserProfile profile = BrowserProfile.forBrowser(browserType);
+        System.out.println("Launching " + browserType + " with the " + profile + " profile");
+        if(browserType.equalsIgnoreCase("FireFox")) {
+            DriverBinaries.setup("firefox");
+            FirefoxOptions options = new FirefoxOptions();
+            profile.apply(options);
+            driver = new FirefoxDriver(options);
 
-        }else if(initializePropertyFile().getProperty("BrowserType").equalsIgnoreCase("Chrome")) {
-            WebDriverManager.chromedriver().setup();
+        }else if(browserType.equalsIgnoreCase("Chrome")) {
+            DriverBinaries.setup("chrome");
             ChromeOptions options = new ChromeOptions();
             options.addArguments("--remote-allow-origins=*");
+            profile.apply(options);
             driver = new ChromeDriver(options);
 
-        }else if(initializePropertyFile().getProperty("BrowserType").equalsIgnoreCase("MicrosoftEdge")) {
-            WebDriverManager.edgedriver().setup();
+        }else if(browserType.equalsIgnoreCase("MicrosoftEdge")) {
+            DriverBinaries.setup("edge");
             EdgeOptions options = new EdgeOptions();
             options.addArguments("--remote-allow-origins=*");
+            profile.apply(options);
             driver = new EdgeDriver(options);
         }
+        profile.applyToSession(driver);
+        return driver;
     }
 
     /**
      * Set up the remote execution on one of the nodes created the hub such as:
      * <ul>
-     *     <li>configure the hub URL
      *     <li>configure the driver type
-     *     <li>configure the platform used to execute the scenarios
+     *     <li>configure the platform used to execute the scenarios, {@code RemotePlatform} in the configuration file
+     *     <li>queue the session request until one of the hubs has a free slot, see {@link GridScheduler}
      * </ul>
+     * @return driver
      */
-    public static void remoteExecutionSetup() {
-        String url = initializePropertyFile().getProperty("hubURL");
+    public static WebDriver remoteExecutionSetup() {
         DesiredCapabilities capabilities = new DesiredCapabilities();
-        capabilities.setBrowserName(initializePropertyFile().getProperty("BrowserType"));
-        capabilities.setPlatform(Platform.WIN10);
-        try {
-            driver = new RemoteWebDriver(new URI(url).toURL(), capabilities);
-        } catch (MalformedURLException | URISyntaxException e) {
-            throw new RuntimeException(e);
-        }
+        capabilities.setBrowserName(TestConfig.get().getBrowserType());
+        capabilities.setPlatform(Platform.fromString(TestConfig.get().get("RemotePlatform", "ANY")));
+        return GridScheduler.get().newSession(capabilities);
     }
 
     /**
-     *responsible to open the driver and manage the following:
+     *responsible to create a new driver session and manage the following:
      * <ul>
      *     <li>Set the execution type
-     *     <li>Maximize the window.
-     *     <li>Navigate to the target URL.
+     *     <li>Maximize the window of the remote sessions, the local window is handled by the browser profile.
+     *     <li>Record the command latencies, see {@link MetricsListener}.
+     *     <li>Clear the cached elements of the page on every navigation, see {@link ElementCache}.
+     *     <li>Capture the network responses of the pages, see {@link NetworkCapture}.
+     *     <li>Record or replay the responses of the pages, see {@link FetchReplay}.
      * </ul>
+     * @return driver
      */
-    @Step("Open the browser and navigate to target URL")
-    public static void openBrowser()
+    public static WebDriver createDriver()
     {
-        String runType = initializePropertyFile().getProperty("RunType");
+        String runType = TestConfig.get().getRunType();
+        WebDriver driver = null;
 
         switch (runType){
             case "remote":
                 System.out.println("Start execution in remote mode");
-                remoteExecutionSetup();
+                driver = remoteExecutionSetup();
+                driver.manage().window().maximize();
                 break;
 
             case "local":
                 System.out.println("Start execution in local mode");
-                localExecutionSetup();
+                driver = localExecutionSetup();
                 break;
 
         }
-        driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(10, TimeUnit.SECONDS);
-        System.out.println(initializePropertyFile().getProperty("TargetURL"));
-        driver.get(initializePropertyFile().getProperty("TargetURL"));
-        driver.manage().timeouts().implicitlyWait(20, TimeUnit.SECONDS);
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (StepMetrics.isEnabled()) {
+            listeners.add(new MetricsListener(TestConfig.get().getBrowserType()));
+        }
+        ElementCache elementCache = new ElementCache();
+        if (ElementCache.isEnabled()) {
+            listeners.add(elementCache.navigationListener());
         }
+        if (!listeners.isEmpty()) {
+            driver = new EventFiringDecorator(listeners.toArray(new WebDriverListener[0])).decorate(driver);
+        }
+        ElementCache.register(driver, elementCache);
+        if (NetworkCapture.isEnabled()) {
+            NetworkCapture.attach(driver);
+        }
+        FetchReplay.attach(driver);
+        return driver;
+    }
 
+    /**
+     *responsible to open the driver and manage the following:
+     * <ul>
+     *     <li>Keep the session of the current scope, or take a warm session from the driver pool or create a new one.
+     *     <li>Clear the state left by the previous test when the session is kept, see {@link SessionScope}.
+     *     <li>Bind the session to the current thread.
+     *     <li>Navigate to the target URL.
+     * </ul>
+     */
+    @Step("Open the browser and navigate to target URL")
+    public static void openBrowser()
+    {
+        boolean kept = DriverPool.current() != null;
+        WebDriver driver = DriverPool.acquire(TestBase::createDriver);
+        if (kept && !DriverPool.clearState(driver)) {
+            DriverPool.discard();
+            driver = DriverPool.acquire(TestBase::createDriver);
+        }
+        String targetUrl = TestConfig.get().getTargetUrl();
+        System.out.println(targetUrl);
+        driver.get(targetUrl);
+        }
+
+    /**
+     * Release the session kept by the current thread when the test about to run is out of its scope,
+     * runs before the browser is opened by the test classes.
+     * @param testResult the test about to run
+     */
+    @BeforeMethod(alwaysRun = true)
+    public static void bindSessionScope(ITestResult testResult)
+    {
+        String key = SessionScope.current().keyOf(testResult);
+        if (DriverPool.current() != null && !key.equals(sessionKey.get())) {
+            DriverPool.release();
+        }
+        sessionKey.set(key);
+    }
 
     /**
      * Take a screenshot in case of failure
      * @param driver
      * @return screenshot
+     * @deprecated the failure screenshots are captured in memory by {@link FailureArtifacts}
      */
+    @Deprecated
     public static File takeScreenShot(WebDriver driver)
         {
             TakesScreenshot captureIMG = (TakesScreenshot) driver;
@@ -176,26 +264,72 @@ public class TestBase {
     /**
      * Responsible to:
      * <ul>
-     *     <li>Take screenshot in case of failure.
-     *     <li>Close the browser session.
+     *     <li>Record the outcome of the data row and of the method for the test-impact selection and the scheduling,
+     *     see {@link TestImpact}.
+     *     <li>Capture the failure artifacts in case of failure, see {@link FailureArtifacts}.
+     *     <li>Quit the browser session of a failed test so its state can not leak.
+     *     <li>Reset the browser session and return it to the driver pool, or keep it for the next test
+     *     of the same scope, see {@link SessionScope}.
      * </ul>
      * @param testResult
      * @throws IOException
      */
-    @Step("Take screenshot in case of failure and close the browser session")
+    @Step("Take screenshot in case of failure and release the browser session")
         @AfterMethod(alwaysRun = true)
             public static void updateTestStatus(ITestResult testResult) throws IOException {
+            if (testResult.getStatus() != ITestResult.SKIP) {
+                TestImpact.recordRow(testResult.getParameters(), testResult.isSuccess());
+                TestImpact.recordMethod(testResult.getMethod().getQualifiedName(), testResult.isSuccess());
+            }
+            WebDriver driver = getDriver();
+            if (driver == null) {
+                return;
+            }
             if(testResult.getStatus()==ITestResult.FAILURE){
-                File screenShot = takeScreenShot(driver);
-                Allure.addAttachment("Page ScreenShot" , FileUtils.openInputStream(screenShot));
+                FailureArtifacts.capture(driver);
+                DriverPool.discard();
+                sessionKey.remove();
+            } else if (SessionScope.current() == SessionScope.METHOD) {
+                DriverPool.release();
+                sessionKey.remove();
             }
-            driver.quit();
         }
 
+    /**
+     * Return the session kept for the class or its data driven tests to the driver pool.
+     */
+    @AfterClass(alwaysRun = true)
+    public static void releaseClassSession()
+    {
+        SessionScope scope = SessionScope.current();
+        if ((scope == SessionScope.CLASS || scope == SessionScope.DATA_PROVIDER) && DriverPool.current() != null) {
+            DriverPool.release();
+            sessionKey.remove();
+        }
+    }
+
+    /**
+     * Wait until the failure artifacts captured during the suite are written to the report,
+     * publish the step timings, the element cache hits and the performance trend,
+     * save the recorded responses and the test-impact fingerprints.
+     */
+    @AfterSuite(alwaysRun = true)
+    public static void flushReports()
+    {
+        FailureArtifacts.flush(Duration.ofMinutes(1));
+        StepMetrics.publish();
+        ElementCache.publish();
+        PerformanceGate.publish();
+        FetchReplay.save();
+        TestImpact.save();
+    }
+
     /**
      * Create an implicit sleep time
      * @param sleepAmount
+     * @deprecated wait for a page condition with {@link utils.Waits} instead
      */
+    @Deprecated
     public void sleep(int sleepAmount)
         {
             System.out.println("Start Sleep Mode for :"+sleepAmount+".");
@@ -0,0 +1,90 @@
+package keywords;
+
+/**
+ * The actions supported in the keyword sheets.
+ */
+public enum Keyword {
+    SEND_DATA("send data", true, false, true),
+    CLICK("click", true, false, true),
+    SCROLL("scroll", false, true, false),
+    SWITCH("switch", true, false, true),
+    GET_RESULTS("get results", true, false, false),
+    /**
+     * Deprecated, use {@link #WAIT_FOR}: waits at most the value in milliseconds for the DOM to stop changing
+     * instead of sleeping, see {@link utils.Waits#domQuiet(org.openqa.selenium.WebDriver, java.time.Duration)}.
+     */
+    SLEEP("sleep", false, false, false),
+    WAIT_FOR("wait for", true, false, false);
+
+    /**
+     * The action name as written in the keyword sheet.
+     */
+    private final String action;
+    /**
+     * Whether the keyword needs a locator.
+     */
+    private final boolean needsLocator;
+    /**
+     * Whether the keyword depends on a rendered page and is skipped on an in-process session.
+     */
+    private final boolean requiresBrowser;
+    /**
+     * Whether the keyword changes the page state, the following steps depend on it.
+     */
+    private final boolean changesPage;
+
+    Keyword(String action, boolean needsLocator, boolean requiresBrowser, boolean changesPage)
+    {
+        this.action = action;
+        this.needsLocator = needsLocator;
+        this.requiresBrowser = requiresBrowser;
+        this.changesPage = changesPage;
+    }
+
+    /**
+     * @return the action name as written in the keyword sheet
+     */
+    public String getAction()
+    {
+        return action;
+    }
+
+    /**
+     * @return true if the keyword needs a locator
+     */
+    public boolean needsLocator()
+    {
+        return needsLocator;
+    }
+
+    /**
+     * @return true if the keyword depends on a rendered page and is skipped on an in-process session
+     */
+    public boolean requiresBrowser()
+    {
+        return requiresBrowser;
+    }
+
+    /**
+     * @return true if the keyword changes the page state, e.g. typing or clicking, see {@link StepPolicy}
+     */
+    public boolean changesPage()
+    {
+        return changesPage;
+    }
+
+    /**
+     * Find the keyword of an action name.
+     * @param action the action name as written in the keyword sheet
+     * @return the keyword or null if the action is unknown
+     */
+    public static Keyword fromAction(String action)
+    {
+        for (Keyword keyword : values()) {
+            if (keyword.action.equalsIgnoreCase(action)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,219 @@
+package keywords;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openqa.selenium.By;
+import pages.Locators;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the keyword sheets into immutable plans.
+ * <p>
+ * Every sheet is parsed once and its plan is cached per workbook and sheet name until the workbook
+ * modification time changes. The sheet columns are: test step, locator, action, value and an optional timeout
+ * in milliseconds overriding the step timeout, see {@link KeywordExecutor#timeout}.
+ * A locator set to {@code NA} keeps the locator of the previous step, a locator starting with {@code @} is a name
+ * of the locator registry and any other locator is an XPath.
+ */
+public class KeywordCompiler {
+    /**
+     * The compiled plans keyed by the absolute workbook path and the sheet name.
+     */
+    private static final Map<String, CachedPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Get the plan of a keyword sheet, compiling it on the first call or when the workbook has changed.
+     * @param path the path of the keyword workbook
+     * @param sheetName the name of the sheet
+     * @return the compiled plan
+     */
+    public static KeywordPlan compile(String path, String sheetName)
+    {
+        File file = new File(path).getAbsoluteFile();
+        long lastModified = file.lastModified();
+        String key = file.getPath() + "#" + sheetName;
+        CachedPlan cached = plans.get(key);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.plan;
+        }
+        return plans.compute(key, (k, existing) -> {
+            if (existing != null && existing.lastModified == lastModified) {
+                return existing;
+            }
+            return new CachedPlan(lastModified, parse(file, sheetName));
+        }).plan;
+    }
+
+    /**
+     * List the sheets of a keyword workbook whose name starts with a prefix, e.g. {@code TC_}.
+     * @param path the path of the keyword workbook
+     * @param prefix the prefix of the test case sheets
+     * @return the sheet names in workbook order
+     */
+    public static List<String> sheetNames(String path, String prefix)
+    {
+        try (Workbook book = WorkbookFactory.create(new File(path), null, true)) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < book.getNumberOfSheets(); i++) {
+                if (book.getSheetName(i).startsWith(prefix)) {
+                    names.add(book.getSheetName(i));
+                }
+            }
+            return names;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Drop every cached plan.
+     */
+    public static void invalidateAll()
+    {
+        plans.clear();
+    }
+
+    /**
+     * Parse a keyword sheet and validate its keywords.
+     * @param file the keyword workbook
+     * @param sheetName the name of the sheet
+     * @return the compiled plan
+     */
+    private static KeywordPlan parse(File file, String sheetName)
+    {
+        try (Workbook book = WorkbookFactory.create(file, null, true)) {
+            Sheet sheet = book.getSheet(sheetName);
+            if (sheet == null) {
+                throw new IllegalArgumentException("Sheet " + sheetName + " not found in " + file);
+            }
+            DataFormatter formatter = new DataFormatter();
+            Map<String, By> locators = new HashMap<>();
+            List<KeywordStep> steps = new ArrayList<>();
+            By locator = null;
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) {
+                    continue;
+                }
+                String description = text(formatter, row.getCell(0));
+                String locatorValue = text(formatter, row.getCell(1));
+                String action = text(formatter, row.getCell(2));
+                String value = text(formatter, row.getCell(3));
+                String timeout = text(formatter, row.getCell(4));
+                if (action.isEmpty()) {
+                    continue;
+                }
+                Keyword keyword = Keyword.fromAction(action);
+                if (keyword == null) {
+                    throw new IllegalArgumentException("Unknown keyword '" + action + "' in sheet " + sheetName + " row " + (i + 1));
+                }
+                if (!locatorValue.isEmpty() && !locatorValue.equalsIgnoreCase("NA")) {
+                    locator = locators.computeIfAbsent(locatorValue, KeywordCompiler::locator);
+                }
+                if (keyword.needsLocator() && locator == null) {
+                    throw new IllegalArgumentException("Keyword '" + action + "' needs a locator in sheet " + sheetName + " row " + (i + 1));
+                }
+                steps.add(new KeywordStep(i + 1, description, keyword, keyword.needsLocator() ? locator : null, value,
+                        millis(keyword, value, row.getCell(3), sheetName, i + 1), timeoutMillis(timeout, sheetName, i + 1)));
+            }
+            return new KeywordPlan(sheetName, steps);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Resolve the locator column through the locator registry: {@code @name} refers to a registry entry,
+     * any other value is an XPath.
+     * @param locatorValue the locator column
+     * @return the cached locator
+     */
+    private static By locator(String locatorValue)
+    {
+        if (locatorValue.startsWith("@")) {
+            return Locators.get(locatorValue.substring(1));
+        }
+        return Locators.xpath(locatorValue);
+    }
+
+    /**
+     * Parse the duration of the timed keywords, the duration of {@code wait for} is an optional timeout.
+     * A numeric cell is read as its number, a text cell is parsed; either must be a whole number of milliseconds.
+     * @return the duration in milliseconds, 0 for the other keywords
+     */
+    private static long millis(Keyword keyword, String value, Cell cell, String sheetName, int row)
+    {
+        if (keyword != Keyword.SLEEP && keyword != Keyword.WAIT_FOR) {
+            return 0;
+        }
+        if (keyword == Keyword.WAIT_FOR && (value.isEmpty() || value.equalsIgnoreCase("NA"))) {
+            return 0;
+        }
+        double duration;
+        if (cell != null && cell.getCellType() == CellType.NUMERIC) {
+            duration = cell.getNumericCellValue();
+        } else {
+            try {
+                duration = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid duration '" + value + "' in sheet " + sheetName + " row " + row, e);
+            }
+        }
+        if (duration < 0 || duration != Math.rint(duration)) {
+            throw new IllegalArgumentException("Duration '" + value + "' is not a whole number of milliseconds in sheet "
+                    + sheetName + " row " + row);
+        }
+        return (long) duration;
+    }
+
+    /**
+     * Parse the optional timeout column.
+     * @return the timeout in milliseconds, 0 when the column is empty
+     */
+    private static long timeoutMillis(String timeout, String sheetName, int row)
+    {
+        if (timeout.isEmpty() || timeout.equalsIgnoreCase("NA")) {
+            return 0;
+        }
+        try {
+            return (long) Double.parseDouble(timeout);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timeout '" + timeout + "' in sheet " + sheetName + " row " + row, e);
+        }
+    }
+
+    /**
+     * Get the trimmed text of a cell.
+     * @return the text or an empty string for a missing cell
+     */
+    private static String text(DataFormatter formatter, Cell cell)
+    {
+        return cell == null ? "" : formatter.formatCellValue(cell).trim();
+    }
+
+    /**
+     * A compiled plan and the workbook modification time it was compiled from.
+     */
+    private static class CachedPlan {
+        private final long lastModified;
+        private final KeywordPlan plan;
+
+        CachedPlan(long lastModified, KeywordPlan plan)
+        {
+            this.lastModified = lastModified;
+            this.plan = plan;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package keywords;
+
+import base.InProcessDriver;
+import metrics.StepMetrics;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import pages.DomQuery;
+import pages.ElementCache;
+import utils.TestConfig;
+import utils.Waits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the compiled keyword plans on a driver session.
+ */
+public class KeywordExecutor {
+    /**
+     * The WebDriver instance used for test execution.
+     */
+    private final WebDriver driver;
+    /**
+     * Whether the session runs in process, the keywords which need a real browser are skipped.
+     */
+    private final boolean inProcess;
+    /**
+     * What happens to the steps following a failed step.
+     */
+    private final StepPolicy policy;
+    /**
+     * The elements of the current page, shared with the page objects of the session.
+     */
+    private final ElementCache cache;
+
+    /**
+     * Constructs a new KeywordExecutor with the given WebDriver instance and the configured failure policy.
+     * @param driver the WebDriver instance to use
+     */
+    public KeywordExecutor(WebDriver driver)
+    {
+        this(driver, StepPolicy.current());
+    }
+
+    /**
+     * Constructs a new KeywordExecutor with the given WebDriver instance and failure policy.
+     * @param driver the WebDriver instance to use
+     * @param policy what happens to the steps following a failed step
+     */
+    public KeywordExecutor(WebDriver driver, StepPolicy policy)
+    {
+        this.driver = driver;
+        this.inProcess = InProcessDriver.isInProcess(driver);
+        this.policy = policy;
+        this.cache = ElementCache.of(driver);
+    }
+
+    /**
+     * Run the steps of a plan, the steps following a failed step are skipped according to the {@link StepPolicy}.
+     * @param plan the compiled plan
+     * @return the outcome of the sheet and of every step
+     */
+    public SheetResult execute(KeywordPlan plan)
+    {
+        long sheetStart = System.nanoTime();
+        List<StepOutcome> outcomes = new ArrayList<>();
+        KeywordStep abortedBy = null;
+        Map<By, KeywordStep> brokenLocators = new HashMap<>();
+        for (KeywordStep step : plan.getSteps()) {
+            String skipReason = abortedBy != null ? "row " + abortedBy.getRow() + " failed"
+                    : step.getLocator() != null && brokenLocators.containsKey(step.getLocator())
+                    ? "row " + brokenLocators.get(step.getLocator()).getRow() + " failed on the same locator" : null;
+            if (skipReason != null) {
+                outcomes.add(StepOutcome.skipped(step, skipReason));
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                execute(step);
+                outcomes.add(StepOutcome.passed(step, Duration.ofNanos(System.nanoTime() - start)));
+            } catch (Exception e) {
+                failed = true;
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                outcomes.add(StepOutcome.failed(step, Duration.ofNanos(System.nanoTime() - start), e));
+                System.out.println("Step failed in sheet " + plan.getSheetName() + " " + step + ": " + e.getMessage());
+                if (policy == StepPolicy.ABORT_SHEET || e instanceof InterruptedException
+                        || (policy == StepPolicy.SKIP_DEPENDENT && step.getKeyword().changesPage())) {
+                    abortedBy = step;
+                } else if (policy == StepPolicy.SKIP_DEPENDENT && step.getLocator() != null) {
+                    brokenLocators.put(step.getLocator(), step);
+                }
+            } finally {
+                if (StepMetrics.isEnabled()) {
+                    StepMetrics.record("keyword", System.nanoTime() - start, StepMetrics.withOutcome(new String[]{
+                            "keyword", step.getKeyword().getAction(), "sheet", plan.getSheetName()}, failed));
+                }
+            }
+        }
+        return new SheetResult(plan.getSheetName(), outcomes, Duration.ofNanos(System.nanoTime() - sheetStart));
+    }
+
+    /**
+     * Get the timeout of the waits of a step:
+     * <ul>
+     *     <li>the timeout column of the step when it is set
+     *     <li>the duration of a {@code wait for} step when it has one
+     *     <li>{@code KeywordStepTimeoutSeconds} otherwise, so a broken locator fails before the page object timeout
+     * </ul>
+     * @param step the compiled step
+     * @return the timeout
+     */
+    public static Duration timeout(KeywordStep step)
+    {
+        if (step.getTimeoutMillis() > 0) {
+            return Duration.ofMillis(step.getTimeoutMillis());
+        }
+        if (step.getKeyword() == Keyword.WAIT_FOR && step.getMillis() > 0) {
+            return Duration.ofMillis(step.getMillis());
+        }
+        return Duration.ofSeconds(TestConfig.get().getInt("KeywordStepTimeoutSeconds",
+                (int) Waits.defaultTimeout().getSeconds()));
+    }
+
+    /**
+     * Run a single step, the steps which need a real browser are skipped on an in-process session.
+     * @param step the compiled step
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void execute(KeywordStep step) throws InterruptedException
+    {
+        if (inProcess && step.getKeyword().requiresBrowser()) {
+            System.out.println("Skipping " + step + ": it needs a real browser.");
+            return;
+        }
+        switch (step.getKeyword()) {
+            case SEND_DATA:
+                Waits.on(driver, timeout(step)).until(ExpectedConditions.visibilityOf(cache.element(step.getLocator())))
+                        .sendKeys(step.getValue());
+                break;
+
+            case CLICK:
+            case SWITCH:
+                Waits.on(driver, timeout(step)).until(ExpectedConditions.elementToBeClickable(cache.element(step.getLocator())))
+                        .click();
+                break;
+
+            case SCROLL:
+                ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, document.body.scrollHeight)");
+                break;
+
+            case GET_RESULTS:
+                int resultsCount = DomQuery.awaitCount(driver, step.getLocator(), timeout(step));
+                System.out.println("the list of results size is " + resultsCount + ".");
+                if (resultsCount == 0) {
+                    throw new NoSuchElementException("No result found by " + step.getLocator());
+                }
+                break;
+
+            case WAIT_FOR:
+                Waits.on(driver, timeout(step)).until(ExpectedConditions.visibilityOf(cache.element(step.getLocator())));
+                Waits.domQuiet(driver);
+                break;
+
+            case SLEEP:
+                System.out.println("sleep of row " + step.getRow() + " is deprecated, waiting at most " + step.getMillis()
+                        + " ms for the page to settle.");
+                Waits.domQuiet(driver, Duration.ofMillis(step.getMillis()));
+                break;
+        }
+    }
+}
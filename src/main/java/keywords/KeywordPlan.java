@@ -0,0 +1,34 @@
+package keywords;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The immutable list of compiled steps of a keyword sheet.
+ */
+public final class KeywordPlan {
+    /**
+     * The name of the compiled sheet.
+     */
+    private final String sheetName;
+    /**
+     * The steps in execution order.
+     */
+    private final List<KeywordStep> steps;
+
+    public KeywordPlan(String sheetName, List<KeywordStep> steps)
+    {
+        this.sheetName = sheetName;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    public String getSheetName()
+    {
+        return sheetName;
+    }
+
+    public List<KeywordStep> getSteps()
+    {
+        return steps;
+    }
+}
@@ -0,0 +1,95 @@
+package keywords;
+
+import org.openqa.selenium.By;
+
+/**
+ * One compiled row of a keyword sheet.
+ */
+public final class KeywordStep {
+    /**
+     * The row number in the sheet, starting from 1 as shown in Excel.
+     */
+    private final int row;
+    /**
+     * The test step description.
+     */
+    private final String description;
+    /**
+     * The action of the step.
+     */
+    private final Keyword keyword;
+    /**
+     * The locator of the step, null if the keyword does not need one.
+     */
+    private final By locator;
+    /**
+     * The raw value column.
+     */
+    private final String value;
+    /**
+     * The parsed duration for the timed keywords, in milliseconds.
+     */
+    private final long millis;
+    /**
+     * The timeout of the waits of the step in milliseconds, 0 for the default step timeout.
+     */
+    private final long timeoutMillis;
+
+    public KeywordStep(int row, String description, Keyword keyword, By locator, String value, long millis)
+    {
+        this(row, description, keyword, locator, value, millis, 0);
+    }
+
+    public KeywordStep(int row, String description, Keyword keyword, By locator, String value, long millis,
+                       long timeoutMillis)
+    {
+        this.row = row;
+        this.description = description;
+        this.keyword = keyword;
+        this.locator = locator;
+        this.value = value;
+        this.millis = millis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getRow()
+    {
+        return row;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public Keyword getKeyword()
+    {
+        return keyword;
+    }
+
+    public By getLocator()
+    {
+        return locator;
+    }
+
+    public String getValue()
+    {
+        return value;
+    }
+
+    public long getMillis()
+    {
+        return millis;
+    }
+
+    public long getTimeoutMillis()
+    {
+        return timeoutMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "row " + row + " [" + keyword.getAction() + "] " + description;
+    }
+}
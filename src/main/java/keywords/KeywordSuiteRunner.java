@@ -0,0 +1,252 @@
+package keywords;
+
+import base.DriverPool;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+import metrics.DurationEstimates;
+import metrics.PerformanceGate;
+import org.openqa.selenium.WebDriver;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import utils.TestImpact;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent keyword sheets concurrently, one virtual thread per sheet.
+ * <p>
+ * A keyword step spends nearly all its time blocked on the WebDriver HTTP protocol, so every sheet gets its own
+ * virtual thread instead of a platform thread. The number of sheets driving a browser at the same time is bounded
+ * by a semaphore, and the sessions are taken from and returned to {@link DriverPool}, so a finished sheet hands its
+ * warm session to the next one.
+ */
+public class KeywordSuiteRunner {
+    /**
+     * Creates a new session when the driver pool is empty.
+     */
+    private final Supplier<WebDriver> sessionFactory;
+    /**
+     * The URL opened before every sheet, null to start from the current page.
+     */
+    private final String startUrl;
+    /**
+     * One permit per sheet allowed to drive a session at the same time.
+     */
+    private final Semaphore sessions;
+
+    /**
+     * Constructs a new KeywordSuiteRunner.
+     * @param sessionFactory creates a new session when the driver pool is empty
+     * @param startUrl the URL opened before every sheet, null to start from the current page
+     * @param maxSessions the maximum number of sessions used at the same time
+     */
+    public KeywordSuiteRunner(Supplier<WebDriver> sessionFactory, String startUrl, int maxSessions)
+    {
+        this.sessionFactory = sessionFactory;
+        this.startUrl = startUrl;
+        this.sessions = new Semaphore(Math.max(1, maxSessions), true);
+    }
+
+    /**
+     * Run every sheet of a keyword workbook whose name starts with a prefix.
+     * @param path the path of the keyword workbook
+     * @param prefix the prefix of the test case sheets, e.g. {@code TC_}
+     * @return the outcome of every sheet in workbook order
+     */
+    public List<SheetResult> run(String path, String prefix)
+    {
+        return run(path, KeywordCompiler.sheetNames(path, prefix));
+    }
+
+    /**
+     * Run keyword sheets concurrently and wait until all of them finish.
+     * @param path the path of the keyword workbook
+     * @param sheetNames the sheets to run
+     * @return the outcome of every sheet in the given order
+     * @throws SkipException if every sheet is unchanged since it last passed, see {@link TestImpact}
+     */
+    public List<SheetResult> run(String path, List<String> sheetNames)
+    {
+        List<String> selected = select(path, sheetNames);
+        if (selected.isEmpty() && !sheetNames.isEmpty()) {
+            throw new SkipException("All the " + sheetNames.size() + " keyword sheets are unchanged since they last passed");
+        }
+        sheetNames = schedule(path, selected);
+        List<Future<SheetResult>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String sheetName : sheetNames) {
+                futures.add(executor.submit(() -> runSheet(path, sheetName)));
+            }
+        }
+        List<SheetResult> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(new SheetResult(sheetNames.get(i), 0, new ArrayList<>(), e.getCause(), Duration.ZERO));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Apply the test-impact selection: skip the unchanged sheets which passed and run the failed ones first.
+     */
+    private static List<String> select(String path, List<String> sheetNames)
+    {
+        if (!TestImpact.isEnabled()) {
+            return sheetNames;
+        }
+        List<String> failed = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (String sheetName : sheetNames) {
+            KeywordPlan plan;
+            try {
+                plan = KeywordCompiler.compile(path, sheetName);
+            } catch (RuntimeException e) {
+                changed.add(sheetName);
+                continue;
+            }
+            if (TestImpact.failedLastTime(plan)) {
+                failed.add(sheetName);
+            } else if (TestImpact.shouldRun(plan)) {
+                changed.add(sheetName);
+            }
+        }
+        if (TestImpact.isChangedOnly()) {
+            System.out.println("Impact selection of the keyword sheets: " + failed.size() + " failed, " + changed.size()
+                    + " new or changed, " + (sheetNames.size() - failed.size() - changed.size()) + " unchanged sheets skipped.");
+        }
+        failed.addAll(changed);
+        return failed;
+    }
+
+    /**
+     * Order the sheets longest first from their recorded durations when {@code ScheduleOrder=longest-first},
+     * so the last sheets to start are the short ones, see {@link DurationEstimates}.
+     */
+    private static List<String> schedule(String path, List<String> sheetNames)
+    {
+        if (!DurationEstimates.isEnabled() || sheetNames.size() < 2) {
+            return sheetNames;
+        }
+        return DurationEstimates.longestFirst(sheetNames, DurationEstimates::sheet, null,
+                DurationEstimates.failedFirst() ? sheetName -> failedLastTime(path, sheetName) : null);
+    }
+
+    private static boolean failedLastTime(String path, String sheetName)
+    {
+        try {
+            return TestImpact.failedLastTime(KeywordCompiler.compile(path, sheetName));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run one sheet on a pooled session, the session is quit instead of pooled if the sheet breaks.
+     */
+    private SheetResult runSheet(String path, String sheetName) throws InterruptedException
+    {
+        sessions.acquire();
+        long start = System.nanoTime();
+        try {
+            KeywordPlan plan = KeywordCompiler.compile(path, sheetName);
+            WebDriver driver = DriverPool.acquire(sessionFactory);
+            if (startUrl != null) {
+                driver.get(startUrl);
+            }
+            SheetResult result = new KeywordExecutor(driver).execute(plan);
+            TestImpact.recordSheet(plan, result.isPassed());
+            if (result.isPassed()) {
+                PerformanceGate.recordSheet(sheetName, result.getDuration().toMillis());
+            }
+            DriverPool.release();
+            return result;
+        } catch (RuntimeException e) {
+            DriverPool.discard();
+            System.out.println("Sheet " + sheetName + " could not run: " + e.getMessage());
+            return new SheetResult(sheetName, 0, new ArrayList<>(), e, Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            sessions.release();
+        }
+    }
+
+    /**
+     * Report the outcome of every sheet as a step of the running Allure test and in the TestNG report,
+     * the outcome of every keyword step is nested in the step of its sheet.
+     * Must be called from the test thread since both reports are bound to it.
+     * @param results the outcome of the sheets
+     */
+    public static void report(List<SheetResult> results)
+    {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        for (SheetResult result : results) {
+            Reporter.log(result.toString());
+            String uuid = UUID.randomUUID().toString();
+            StatusDetails details = new StatusDetails();
+            if (result.getError() != null) {
+                details.setMessage(String.valueOf(result.getError().getMessage()));
+            } else if (!result.getFailures().isEmpty()) {
+                details.setMessage(String.join(System.lineSeparator(), result.getFailures()));
+            }
+            long stop = System.currentTimeMillis();
+            lifecycle.startStep(uuid, new StepResult()
+                    .setName("Keyword sheet " + result.getSheetName())
+                    .setStatus(result.getError() != null ? Status.BROKEN : result.isPassed() ? Status.PASSED : Status.FAILED)
+                    .setStatusDetails(details)
+                    .setStart(stop - result.getDuration().toMillis()));
+            reportSteps(result);
+            lifecycle.stopStep(uuid);
+        }
+    }
+
+    /**
+     * Report the outcome of every keyword step of a sheet as a step of the current Allure test or step
+     * and log the failed and skipped steps in the TestNG report.
+     * Must be called from the test thread since both reports are bound to it.
+     * @param result the outcome of the sheet
+     */
+    public static void reportSteps(SheetResult result)
+    {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        long start = System.currentTimeMillis() - result.getDuration().toMillis();
+        for (StepOutcome outcome : result.getOutcomes()) {
+            if (outcome.getStatus() != StepOutcome.Status.PASSED) {
+                Reporter.log(outcome.toString());
+            }
+            StatusDetails details = new StatusDetails();
+            Status status = Status.PASSED;
+            if (outcome.getStatus() == StepOutcome.Status.FAILED) {
+                status = Status.FAILED;
+                details.setMessage(String.valueOf(outcome.getError().getMessage()));
+            } else if (outcome.getStatus() == StepOutcome.Status.SKIPPED) {
+                status = Status.SKIPPED;
+                details.setMessage(outcome.getSkipReason());
+            }
+            String uuid = UUID.randomUUID().toString();
+            lifecycle.startStep(uuid, new StepResult()
+                    .setName(outcome.getStep().toString())
+                    .setStatus(status)
+                    .setStatusDetails(details)
+                    .setStart(start));
+            lifecycle.stopStep(uuid);
+            start += outcome.getDuration().toMillis();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package keywords;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of the execution of one keyword sheet.
+ */
+public final class SheetResult {
+    /**
+     * The name of the executed sheet.
+     */
+    private final String sheetName;
+    /**
+     * The number of executed steps.
+     */
+    private final int executedSteps;
+    /**
+     * The description of every failed step.
+     */
+    private final List<String> failures;
+    /**
+     * The error which prevented the sheet from running, null if the sheet ran.
+     */
+    private final Throwable error;
+    /**
+     * The execution time of the sheet.
+     */
+    private final Duration duration;
+    /**
+     * The outcome of every step in sheet order, empty if the sheet did not run.
+     */
+    private final List<StepOutcome> outcomes;
+
+    public SheetResult(String sheetName, int executedSteps, List<String> failures, Throwable error, Duration duration)
+    {
+        this.sheetName = sheetName;
+        this.executedSteps = executedSteps;
+        this.failures = Collections.unmodifiableList(failures);
+        this.error = error;
+        this.duration = duration;
+        this.outcomes = Collections.emptyList();
+    }
+
+    /**
+     * Constructs the result of a sheet which ran, the failures are the failed steps.
+     * @param sheetName the name of the executed sheet
+     * @param outcomes the outcome of every step in sheet order
+     * @param duration the execution time of the sheet
+     */
+    public SheetResult(String sheetName, List<StepOutcome> outcomes, Duration duration)
+    {
+        List<String> failed = new ArrayList<>();
+        int executed = 0;
+        for (StepOutcome outcome : outcomes) {
+            if (outcome.getStatus() == StepOutcome.Status.FAILED) {
+                failed.add(outcome.getStep() + ": " + outcome.getError().getMessage());
+            }
+            if (outcome.getStatus() != StepOutcome.Status.SKIPPED) {
+                executed++;
+            }
+        }
+        this.sheetName = sheetName;
+        this.executedSteps = executed;
+        this.failures = Collections.unmodifiableList(failed);
+        this.error = null;
+        this.duration = duration;
+        this.outcomes = Collections.unmodifiableList(new ArrayList<>(outcomes));
+    }
+
+    public String getSheetName()
+    {
+        return sheetName;
+    }
+
+    public int getExecutedSteps()
+    {
+        return executedSteps;
+    }
+
+    public List<String> getFailures()
+    {
+        return failures;
+    }
+
+    public Throwable getError()
+    {
+        return error;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    public List<StepOutcome> getOutcomes()
+    {
+        return outcomes;
+    }
+
+    /**
+     * @return the number of steps skipped after a failure
+     */
+    public int getSkippedSteps()
+    {
+        int skipped = 0;
+        for (StepOutcome outcome : outcomes) {
+            if (outcome.getStatus() == StepOutcome.Status.SKIPPED) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * @return the error of the sheet or its failed and skipped steps, one per line
+     */
+    public String failureMessage()
+    {
+        if (error != null) {
+            return "Sheet " + sheetName + " could not run: " + error.getMessage();
+        }
+        StringBuilder message = new StringBuilder("Sheet " + sheetName + " failed:");
+        for (String failure : failures) {
+            message.append(System.lineSeparator()).append(failure);
+        }
+        for (StepOutcome outcome : outcomes) {
+            if (outcome.getStatus() == StepOutcome.Status.SKIPPED) {
+                message.append(System.lineSeparator()).append(outcome);
+            }
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return true if the sheet ran and none of its steps failed
+     */
+    public boolean isPassed()
+    {
+        return error == null && failures.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        String outcome = error != null ? "broken: " + error.getMessage()
+                : failures.isEmpty() ? "passed" : failures.size() + " failed steps";
+        int skipped = getSkippedSteps();
+        return sheetName + " " + outcome + " (" + executedSteps + " steps" + (skipped > 0 ? ", " + skipped + " skipped" : "")
+                + " in " + duration.toMillis() + " ms)";
+    }
+}
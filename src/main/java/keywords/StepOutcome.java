@@ -0,0 +1,100 @@
+package keywords;
+
+import java.time.Duration;
+
+/**
+ * The outcome of one step of a keyword sheet.
+ */
+public final class StepOutcome {
+    /**
+     * The status of an executed or skipped step.
+     */
+    public enum Status {
+        PASSED,
+        FAILED,
+        SKIPPED
+    }
+
+    /**
+     * The compiled step.
+     */
+    private final KeywordStep step;
+    /**
+     * The status of the step.
+     */
+    private final Status status;
+    /**
+     * The execution time of the step, zero if it was skipped.
+     */
+    private final Duration duration;
+    /**
+     * The error of a failed step, null otherwise.
+     */
+    private final Throwable error;
+    /**
+     * Why the step was skipped, null otherwise.
+     */
+    private final String skipReason;
+
+    private StepOutcome(KeywordStep step, Status status, Duration duration, Throwable error, String skipReason)
+    {
+        this.step = step;
+        this.status = status;
+        this.duration = duration;
+        this.error = error;
+        this.skipReason = skipReason;
+    }
+
+    public static StepOutcome passed(KeywordStep step, Duration duration)
+    {
+        return new StepOutcome(step, Status.PASSED, duration, null, null);
+    }
+
+    public static StepOutcome failed(KeywordStep step, Duration duration, Throwable error)
+    {
+        return new StepOutcome(step, Status.FAILED, duration, error, null);
+    }
+
+    public static StepOutcome skipped(KeywordStep step, String reason)
+    {
+        return new StepOutcome(step, Status.SKIPPED, Duration.ZERO, null, reason);
+    }
+
+    public KeywordStep getStep()
+    {
+        return step;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    public Throwable getError()
+    {
+        return error;
+    }
+
+    public String getSkipReason()
+    {
+        return skipReason;
+    }
+
+    @Override
+    public String toString()
+    {
+        switch (status) {
+            case FAILED:
+                return step + " failed after " + duration.toMillis() + " ms: " + error.getMessage();
+            case SKIPPED:
+                return step + " skipped: " + skipReason;
+            default:
+                return step + " passed in " + duration.toMillis() + " ms";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package keywords;
+
+import utils.TestConfig;
+
+import java.util.Locale;
+
+/**
+ * What the keyword executor does with the steps following a failed step, selected by {@code KeywordFailurePolicy}
+ * in the configuration file:
+ * <ul>
+ *     <li>abort-sheet: the remaining steps are skipped, the default
+ *     <li>skip-dependent: the steps depending on the failed step are skipped, the others run
+ *     <li>continue: every step runs
+ * </ul>
+ * After a failed step which changes the page, i.e. typing, clicking or switching, every following step depends on it.
+ * After a failed step which only reads the page, only the following steps on the same locator depend on it.
+ * A skipped step costs nothing, while a step running on a broken page waits for its whole timeout before failing.
+ */
+public enum StepPolicy {
+    ABORT_SHEET("abort-sheet"),
+    SKIP_DEPENDENT("skip-dependent"),
+    CONTINUE("continue");
+
+    /**
+     * The name used in the configuration file.
+     */
+    private final String name;
+
+    StepPolicy(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * @return the policy selected by the configuration file, abort-sheet by default
+     */
+    public static StepPolicy current()
+    {
+        String value = TestConfig.get().get("KeywordFailurePolicy", "abort-sheet").trim().toLowerCase(Locale.ROOT);
+        for (StepPolicy policy : values()) {
+            if (policy.name.equals(value) || policy.name().toLowerCase(Locale.ROOT).equals(value)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown KeywordFailurePolicy " + value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,140 @@
+package load;
+
+import keywords.KeywordExecutor;
+import keywords.KeywordPlan;
+import keywords.KeywordStep;
+import org.openqa.selenium.WebDriver;
+import pages.ResultsPage;
+import pages.SearchPage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A user flow replayed by the virtual users of a load run, made of named steps timed separately.
+ * <p>
+ * The journeys are built from the page objects and the keyword sheets of the functional suite, so the load run
+ * exercises the same flows as the tests.
+ */
+public final class Journey {
+    /**
+     * The name of the journey.
+     */
+    private final String name;
+    /**
+     * The steps in execution order.
+     */
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Constructs a new empty Journey.
+     * @param name the name of the journey
+     */
+    public Journey(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * The search flow of SearchPageTests: open the search page, type the keyword, search, then visit result pages.
+     * @param startUrl the URL of the search page
+     * @param keyWord the keyword to search for
+     * @param pages the numbers of the result pages to navigate to
+     * @return the journey
+     */
+    public static Journey search(String startUrl, String keyWord, String... pages)
+    {
+        Journey journey = new Journey("search")
+                .step("open", driver -> driver.get(startUrl))
+                .step("type", driver -> new SearchPage(driver).sendDataToSearchField(keyWord))
+                .step("search", driver -> new SearchPage(driver).clickSearchButton())
+                .step("results", driver -> new ResultsPage(driver).waitForResults());
+        for (String page : pages) {
+            journey.step("page " + page, driver -> new ResultsPage(driver).pageNavigator(page));
+        }
+        return journey;
+    }
+
+    /**
+     * The flow of a compiled keyword sheet, one step per row.
+     * @param startUrl the URL opened before the first row
+     * @param plan the compiled sheet
+     * @return the journey
+     */
+    public static Journey keywordSheet(String startUrl, KeywordPlan plan)
+    {
+        Journey journey = new Journey(plan.getSheetName()).step("open", driver -> driver.get(startUrl));
+        for (KeywordStep keywordStep : plan.getSteps()) {
+            journey.step(keywordStep.getRow() + " " + keywordStep.getKeyword().getAction(),
+                    driver -> new KeywordExecutor(driver).execute(keywordStep));
+        }
+        return journey;
+    }
+
+    /**
+     * Append a step.
+     * @param stepName the name the step latencies are reported under
+     * @param action the action of the step
+     * @return this journey
+     */
+    public Journey step(String stepName, Action action)
+    {
+        steps.add(new Step(stepName, action));
+        return this;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public List<Step> getSteps()
+    {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @return the names of the steps in execution order
+     */
+    public List<String> stepNames()
+    {
+        List<String> names = new ArrayList<>();
+        for (Step step : steps) {
+            names.add(step.getName());
+        }
+        return names;
+    }
+
+    /**
+     * The action of a step, run on the session of a virtual user.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run(WebDriver driver) throws Exception;
+    }
+
+    /**
+     * A named step of a journey.
+     */
+    public static final class Step {
+        private final String name;
+        private final Action action;
+
+        Step(String name, Action action)
+        {
+            this.name = name;
+            this.action = action;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public Action getAction()
+        {
+            return action;
+        }
+    }
+}
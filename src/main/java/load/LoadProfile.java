@@ -0,0 +1,127 @@
+package load;
+
+import utils.TestConfig;
+
+import java.time.Duration;
+
+/**
+ * The shape of a load run: how many virtual users, how fast they start, how long they wait between steps,
+ * the throughput they target and how long they run.
+ * <p>
+ * With a target throughput the run follows an open model: every iteration has an intended start time and its
+ * latency is measured from it, so a slow response delays the following iterations and the delay is recorded
+ * instead of being hidden (coordinated omission). Without a target throughput the users run their iterations back
+ * to back, a closed model.
+ */
+public final class LoadProfile {
+    /**
+     * The number of concurrent virtual users.
+     */
+    private final int users;
+    /**
+     * The time over which the users are started, evenly spaced.
+     */
+    private final Duration rampUp;
+    /**
+     * The pause of a user between two steps.
+     */
+    private final Duration thinkTime;
+    /**
+     * The target number of iterations per second of all the users, 0 for the closed model.
+     */
+    private final double targetThroughput;
+    /**
+     * The time during which new iterations are started.
+     */
+    private final Duration duration;
+
+    public LoadProfile(int users, Duration rampUp, Duration thinkTime, double targetThroughput, Duration duration)
+    {
+        if (users < 1) {
+            throw new IllegalArgumentException("A load run needs at least one virtual user");
+        }
+        this.users = users;
+        this.rampUp = rampUp;
+        this.thinkTime = thinkTime;
+        this.targetThroughput = Math.max(0, targetThroughput);
+        this.duration = duration;
+    }
+
+    /**
+     * Read the profile from the configuration file:
+     * <ul>
+     *     <li>{@code LoadUsers} the number of virtual users, 0 disables the load mode
+     *     <li>{@code LoadRampUpSeconds} the ramp-up time
+     *     <li>{@code LoadThinkTimeMillis} the think time between two steps
+     *     <li>{@code LoadTargetThroughput} the target iterations per second, 0 for the closed model
+     *     <li>{@code LoadDurationSeconds} the duration of the run
+     * </ul>
+     * @param config the configuration snapshot
+     * @return the profile
+     */
+    public static LoadProfile fromConfig(TestConfig config)
+    {
+        return new LoadProfile(Math.max(1, config.getInt("LoadUsers", 1)),
+                Duration.ofSeconds(config.getInt("LoadRampUpSeconds", 0)),
+                Duration.ofMillis(config.getInt("LoadThinkTimeMillis", 0)),
+                Double.parseDouble(config.get("LoadTargetThroughput", "0")),
+                Duration.ofSeconds(config.getInt("LoadDurationSeconds", 60)));
+    }
+
+    /**
+     * @return true if the load mode is enabled with {@code LoadUsers} greater than 0
+     */
+    public static boolean isEnabled()
+    {
+        return TestConfig.get().getInt("LoadUsers", 0) > 0;
+    }
+
+    public int getUsers()
+    {
+        return users;
+    }
+
+    public Duration getRampUp()
+    {
+        return rampUp;
+    }
+
+    public Duration getThinkTime()
+    {
+        return thinkTime;
+    }
+
+    public double getTargetThroughput()
+    {
+        return targetThroughput;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * @return true if the iterations follow a schedule, i.e. a target throughput is set
+     */
+    public boolean isOpenModel()
+    {
+        return targetThroughput > 0;
+    }
+
+    /**
+     * @return the interval between the intended starts of two iterations of the same user, 0 for the closed model
+     */
+    public long iterationIntervalNanos()
+    {
+        return isOpenModel() ? (long) (users * 1_000_000_000L / targetThroughput) : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return users + " users, " + rampUp.toMillis() + " ms ramp-up, " + thinkTime.toMillis() + " ms think time, "
+                + (isOpenModel() ? targetThroughput + " iterations/s" : "closed model") + ", "
+                + duration.toMillis() + " ms";
+    }
+}
@@ -0,0 +1,240 @@
+package load;
+
+import io.qameta.allure.Allure;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The outcome of a load run: the throughput, the error rate and the latency percentiles of every step and of the
+ * whole iteration. The latencies are recorded in microseconds in HdrHistogram concurrent histograms.
+ */
+public final class LoadReport {
+    /**
+     * The name reported for the whole iteration.
+     */
+    public static final String ITERATION = "iteration";
+    /**
+     * The highest latency tracked by the histograms: one hour in microseconds.
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+    /**
+     * The number of distinct error messages kept.
+     */
+    private static final int MAX_ERRORS = 20;
+
+    /**
+     * The name of the journey.
+     */
+    private final String journeyName;
+    /**
+     * The profile of the run.
+     */
+    private final LoadProfile profile;
+    /**
+     * The statistics of every step then of the iteration, in execution order.
+     */
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    /**
+     * The first error messages of the run.
+     */
+    private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+    /**
+     * The number of virtual users which could not get a session.
+     */
+    private final LongAdder sessionFailures = new LongAdder();
+    /**
+     * The duration of the run, set when it finishes.
+     */
+    private volatile long elapsedNanos;
+
+    LoadReport(String journeyName, List<String> stepNames, LoadProfile profile)
+    {
+        this.journeyName = journeyName;
+        this.profile = profile;
+        for (String stepName : stepNames) {
+            stats.put(stepName, new Stats());
+        }
+        stats.put(ITERATION, new Stats());
+    }
+
+    /**
+     * Record the latency of a step or of an iteration.
+     */
+    void record(String name, long nanos, boolean failed)
+    {
+        Stats step = stats.get(name);
+        step.histogram.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000)));
+        step.count.increment();
+        if (failed) {
+            step.errors.increment();
+        }
+    }
+
+    void error(String stepName, Throwable error)
+    {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(stepName + ": " + error);
+        }
+    }
+
+    void sessionFailed(Throwable error)
+    {
+        sessionFailures.increment();
+        error("session", error);
+    }
+
+    void finish(long elapsedNanos)
+    {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getJourneyName()
+    {
+        return journeyName;
+    }
+
+    public LoadProfile getProfile()
+    {
+        return profile;
+    }
+
+    /**
+     * @return the names of the steps then {@link #ITERATION}
+     */
+    public List<String> names()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(stats.keySet()));
+    }
+
+    /**
+     * @return the first error messages of the run
+     */
+    public List<String> getErrors()
+    {
+        return new ArrayList<>(errors);
+    }
+
+    public long getSessionFailures()
+    {
+        return sessionFailures.sum();
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @return the number of executions
+     */
+    public long count(String name)
+    {
+        return stats(name).count.sum();
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @return the number of failed executions
+     */
+    public long errors(String name)
+    {
+        return stats(name).errors.sum();
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @return the failed executions over all the executions, 0 if nothing ran
+     */
+    public double errorRate(String name)
+    {
+        long count = count(name);
+        return count == 0 ? 0 : (double) errors(name) / count;
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @return the executions per second over the run
+     */
+    public double throughput(String name)
+    {
+        return elapsedNanos == 0 ? 0 : count(name) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @param percentile the percentile, e.g. 99
+     * @return the latency at the percentile in milliseconds
+     */
+    public double percentileMillis(String name, double percentile)
+    {
+        return stats(name).histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * @param name a step name or {@link #ITERATION}
+     * @return a copy of the latency histogram in microseconds
+     */
+    public Histogram histogram(String name)
+    {
+        return stats(name).histogram.copy();
+    }
+
+    /**
+     * @return the throughput, error rate and percentiles of every step in milliseconds
+     */
+    public String summary()
+    {
+        StringBuilder out = new StringBuilder(String.format("Load run of %s: %s, %d session failures%n",
+                journeyName, profile, getSessionFailures()));
+        out.append(String.format("%-20s %8s %8s %8s %10s %10s %10s %10s%n",
+                "step", "count", "errors", "per s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (String name : stats.keySet()) {
+            Histogram histogram = histogram(name);
+            out.append(String.format("%-20s %8d %7.2f%% %8.2f %10.1f %10.1f %10.1f %10.1f%n", name, count(name),
+                    errorRate(name) * 100, throughput(name), histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(95) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        for (String error : errors) {
+            out.append("error ").append(error).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Print the summary and attach it to the Allure report.
+     */
+    public void publish()
+    {
+        String summary = summary();
+        System.out.println(summary);
+        Allure.addAttachment("Load run of " + journeyName, "text/plain", summary);
+    }
+
+    private Stats stats(String name)
+    {
+        Stats step = stats.get(name);
+        if (step == null) {
+            throw new IllegalArgumentException("Unknown step " + name + " of the journey " + journeyName);
+        }
+        return step;
+    }
+
+    /**
+     * The counters and the latency histogram of a step.
+     */
+    private static class Stats {
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,175 @@
+package load;
+
+import metrics.StepMetrics;
+import org.openqa.selenium.WebDriver;
+import pages.ElementCache;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a journey as concurrent virtual users, one virtual thread and one session per user.
+ * <p>
+ * The users are started evenly over the ramp-up time and start new iterations until the end of the run.
+ * With a target throughput every user follows a schedule of intended start times and the latency of the first step
+ * and of the iteration are measured from the intended start, so the time an iteration waited behind a slow one is
+ * part of its latency. The following steps are measured from their own start, the think time is not recorded.
+ * Every latency is also recorded in the {@code load} timer of {@link StepMetrics}.
+ */
+public class LoadRunner {
+    /**
+     * The profile of the run.
+     */
+    private final LoadProfile profile;
+    /**
+     * Creates the session of a virtual user.
+     */
+    private final Supplier<WebDriver> sessionFactory;
+
+    /**
+     * Constructs a new LoadRunner.
+     * @param profile the profile of the run
+     * @param sessionFactory creates the session of a virtual user, the session is quit when the user stops
+     */
+    public LoadRunner(LoadProfile profile, Supplier<WebDriver> sessionFactory)
+    {
+        this.profile = profile;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Run the journey with the profile and wait until every virtual user stops.
+     * @param journey the journey of the users
+     * @return the report of the run
+     */
+    public LoadReport run(Journey journey)
+    {
+        System.out.println("Starting the load run of " + journey.getName() + ": " + profile);
+        LoadReport report = new LoadReport(journey.getName(), journey.stepNames(), profile);
+        long start = System.nanoTime();
+        long deadline = start + profile.getDuration().toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < profile.getUsers(); user++) {
+                long userStart = start + profile.getRampUp().toNanos() * user / profile.getUsers();
+                users.submit(() -> runUser(journey, report, userStart, deadline));
+            }
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Run the iterations of one user on its own session until the deadline.
+     */
+    private void runUser(Journey journey, LoadReport report, long userStart, long deadline)
+    {
+        if (!sleepUntil(userStart)) {
+            return;
+        }
+        WebDriver driver;
+        try {
+            driver = sessionFactory.get();
+        } catch (RuntimeException e) {
+            report.sessionFailed(e);
+            return;
+        }
+        try {
+            long interval = profile.iterationIntervalNanos();
+            long intendedStart = userStart;
+            while (System.nanoTime() < deadline && intendedStart < deadline) {
+                if (interval > 0 && !sleepUntil(intendedStart)) {
+                    return;
+                }
+                long iterationStart = interval > 0 ? intendedStart : System.nanoTime();
+                if (!runIteration(journey, driver, report, iterationStart)) {
+                    return;
+                }
+                intendedStart = interval > 0 ? intendedStart + interval : System.nanoTime();
+                if (interval == 0 && !think()) {
+                    return;
+                }
+            }
+        } finally {
+            if (driver != null) {
+                ElementCache.forget(driver);
+                try {
+                    driver.quit();
+                } catch (RuntimeException e) {
+                    System.out.println("Failed to quit the session of a virtual user: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the steps of one iteration, the iteration stops at the first failed step.
+     * @return false if the user was interrupted
+     */
+    private boolean runIteration(Journey journey, WebDriver driver, LoadReport report, long iterationStart)
+    {
+        boolean failed = false;
+        boolean first = true;
+        for (Journey.Step step : journey.getSteps()) {
+            if (!first && !think()) {
+                return false;
+            }
+            long stepStart = first ? Math.min(iterationStart, System.nanoTime()) : System.nanoTime();
+            try {
+                step.getAction().run(driver);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                failed = true;
+                report.error(step.getName(), e);
+            }
+            record(report, journey, step.getName(), System.nanoTime() - stepStart, failed);
+            first = false;
+            if (failed) {
+                break;
+            }
+        }
+        record(report, journey, LoadReport.ITERATION, System.nanoTime() - iterationStart, failed);
+        return true;
+    }
+
+    private static void record(LoadReport report, Journey journey, String name, long nanos, boolean failed)
+    {
+        report.record(name, nanos, failed);
+        if (!StepMetrics.isEnabled()) {
+            return;
+        }
+        StepMetrics.record("load", nanos, StepMetrics.withOutcome(new String[]{
+                "journey", journey.getName(), "step", name}, failed));
+    }
+
+    /**
+     * Pause for the think time.
+     * @return false if the user was interrupted
+     */
+    private boolean think()
+    {
+        return profile.getThinkTime().isZero() || sleepUntil(System.nanoTime() + profile.getThinkTime().toNanos());
+    }
+
+    /**
+     * Sleep until a time of {@link System#nanoTime()}.
+     * @return false if the user was interrupted
+     */
+    private static boolean sleepUntil(long nanoTime)
+    {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
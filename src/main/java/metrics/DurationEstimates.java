@@ -0,0 +1,174 @@
+package metrics;
+
+import utils.TestConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Estimates the duration of the test methods, the data rows and the keyword sheets from the {@link DurationHistory}
+ * recorded by {@link PerformanceGate}, and orders them longest-processing-time first.
+ * <p>
+ * Parallel workers take the work in list order, so starting the longest items first leaves only short items for the
+ * end of the run and the workers finish close to each other. {@code ScheduleOrder} in the configuration file
+ * selects the order:
+ * <ul>
+ *     <li>declaration: the order of the test classes and the data sheets, the default
+ *     <li>longest-first: the items which failed last time first when {@code ScheduleFailedFirst=true},
+ *     then the other items by decreasing estimated duration
+ * </ul>
+ * An item without history is estimated by the median of the known items of the same kind, or by
+ * {@code ScheduleDefaultMillis} when none is known, data driven methods count twice.
+ * The durations are only recorded when {@code PerfGate} is not off and the failures when {@code ImpactMode} is not off.
+ */
+public class DurationEstimates {
+    /**
+     * @return true if the work is ordered longest first
+     */
+    public static boolean isEnabled()
+    {
+        return TestConfig.get().get("ScheduleOrder", "declaration").trim().toLowerCase(Locale.ROOT).equals("longest-first");
+    }
+
+    /**
+     * @return true if the items which failed last time are pulled before the others
+     */
+    public static boolean failedFirst()
+    {
+        return TestConfig.get().getBoolean("ScheduleFailedFirst", true);
+    }
+
+    /**
+     * @return the estimate of an item of an unknown kind, {@code ScheduleDefaultMillis}
+     */
+    public static long defaultMillis()
+    {
+        return TestConfig.get().getInt("ScheduleDefaultMillis", 30000);
+    }
+
+    /**
+     * Estimate a test method: the sum of its recorded rows for a data driven method, its median otherwise.
+     * @param qualifiedName the qualified name of the test method
+     * @return the estimate in milliseconds, null if the method has no history
+     */
+    public static Long method(String qualifiedName)
+    {
+        DurationHistory history = PerformanceGate.history();
+        String rowPrefix = "row:" + qualifiedName + "[";
+        long rows = 0;
+        boolean hasRows = false;
+        for (String key : history.keys()) {
+            if (key.startsWith(rowPrefix)) {
+                rows += median(history.samples(key));
+                hasRows = true;
+            }
+        }
+        if (hasRows) {
+            return rows;
+        }
+        List<Long> samples = history.samples("test:" + qualifiedName);
+        return samples.isEmpty() ? null : median(samples);
+    }
+
+    /**
+     * Estimate a data row of a test class, from the row of any of its methods with the same content.
+     * @param testClass the test class consuming the row
+     * @param row the row
+     * @return the estimate in milliseconds, null if the row has no history
+     */
+    public static Long row(Class<?> testClass, Object[] row)
+    {
+        DurationHistory history = PerformanceGate.history();
+        String prefix = "row:" + testClass.getName() + ".";
+        String suffix = Arrays.deepToString(row);
+        Long estimate = null;
+        for (String key : history.keys()) {
+            if (key.startsWith(prefix) && key.endsWith(suffix)) {
+                long median = median(history.samples(key));
+                estimate = estimate == null ? median : Math.max(estimate, median);
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimate a keyword sheet.
+     * @param sheetName the name of the sheet
+     * @return the estimate in milliseconds, null if the sheet has no history
+     */
+    public static Long sheet(String sheetName)
+    {
+        List<Long> samples = PerformanceGate.history().samples("sheet:" + sheetName);
+        return samples.isEmpty() ? null : median(samples);
+    }
+
+    /**
+     * Order items longest-processing-time first, the order of the items with equal estimates is kept.
+     * @param items the items in declaration order
+     * @param estimate the estimate of an item in milliseconds, null if it has no history
+     * @param unknown the estimate of an item without history, null for the median of the known items
+     * @param failed the items to pull before the others, null to keep them in place
+     * @return the ordered items
+     */
+    public static <T> List<T> longestFirst(List<T> items, Function<T, Long> estimate, Long unknown, Predicate<T> failed)
+    {
+        List<Long> estimates = new ArrayList<>();
+        List<Long> known = new ArrayList<>();
+        for (T item : items) {
+            Long millis = estimate.apply(item);
+            estimates.add(millis);
+            if (millis != null) {
+                known.add(millis);
+            }
+        }
+        long fallback = unknown != null ? unknown : known.isEmpty() ? defaultMillis() : median(known);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer, Boolean>comparing(i -> failed == null || !failed.test(items.get(i)))
+                .thenComparing(i -> estimates.get(i) != null ? estimates.get(i) : fallback, Comparator.reverseOrder()));
+        List<T> ordered = new ArrayList<>();
+        for (Integer i : order) {
+            ordered.add(items.get(i));
+        }
+        return ordered;
+    }
+
+    /**
+     * Predict the wall time of durations run in list order by parallel workers, each item going to the first free
+     * worker.
+     * @param durations the durations in milliseconds in execution order
+     * @param workers the number of parallel workers
+     * @return the predicted wall time in milliseconds
+     */
+    public static long makespan(List<Long> durations, int workers)
+    {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            finishTimes.add(0L);
+        }
+        long makespan = 0;
+        for (Long duration : durations) {
+            long finish = finishTimes.poll() + duration;
+            makespan = Math.max(makespan, finish);
+            finishTimes.add(finish);
+        }
+        return makespan;
+    }
+
+    /**
+     * @param samples durations in milliseconds
+     * @return the median of the durations, 0 if there is none
+     */
+    public static long median(List<Long> samples)
+    {
+        return samples.isEmpty() ? 0 : Math.round(DurationHistory.baseline(samples).getMedian());
+    }
+}
@@ -0,0 +1,222 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file-backed rolling history of the durations of the tests, the data rows, the steps and the keyword sheets.
+ * <p>
+ * The history is a properties file mapping a key, e.g. {@code test:testcases.SearchPageTests.Test_Validate...},
+ * to the comma separated durations in milliseconds of its last passing runs, oldest first.
+ * It is loaded once and written back atomically at the end of the run.
+ */
+public final class DurationHistory {
+    /**
+     * The history file.
+     */
+    private final Path file;
+    /**
+     * The number of durations kept per key.
+     */
+    private final int window;
+    /**
+     * The durations keyed by test, row or step, oldest first.
+     */
+    private final Map<String, List<Long>> durations = new ConcurrentHashMap<>();
+
+    private DurationHistory(Path file, int window)
+    {
+        this.file = file;
+        this.window = Math.max(1, window);
+    }
+
+    /**
+     * Load a history file, a missing file is an empty history.
+     * @param file the history file
+     * @param window the number of durations kept per key
+     * @return the history
+     */
+    public static DurationHistory open(Path file, int window)
+    {
+        DurationHistory history = new DurationHistory(file, window);
+        if (Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            } catch (IOException e) {
+                System.out.println("Ignoring the unreadable duration history " + file + ": " + e.getMessage());
+            }
+            for (String key : properties.stringPropertyNames()) {
+                List<Long> samples = new ArrayList<>();
+                for (String value : properties.getProperty(key).split(",")) {
+                    try {
+                        samples.add(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        // a corrupted sample is dropped
+                    }
+                }
+                history.durations.put(key, samples);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Get the recorded durations of a key.
+     * @param key the test, row or step key
+     * @return the durations in milliseconds, oldest first, empty if the key never ran
+     */
+    public List<Long> samples(String key)
+    {
+        List<Long> samples = durations.get(key);
+        if (samples == null) {
+            return Collections.emptyList();
+        }
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    /**
+     * Append a duration, the oldest one is dropped when the window is full.
+     * @param key the test, row or step key
+     * @param millis the duration in milliseconds
+     */
+    public void add(String key, long millis)
+    {
+        List<Long> samples = durations.computeIfAbsent(key, k -> new ArrayList<>());
+        synchronized (samples) {
+            samples.add(millis);
+            while (samples.size() > window) {
+                samples.remove(0);
+            }
+        }
+    }
+
+    /**
+     * @return the recorded keys
+     */
+    public Set<String> keys()
+    {
+        return new TreeSet<>(durations.keySet());
+    }
+
+    /**
+     * @return the number of recorded keys
+     */
+    public int size()
+    {
+        return durations.size();
+    }
+
+    /**
+     * Write the history file, the file is replaced atomically.
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void save() throws IOException
+    {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        Properties properties = new Properties();
+        for (Map.Entry<String, List<Long>> entry : new TreeMap<>(durations).entrySet()) {
+            List<Long> samples = entry.getValue();
+            StringBuilder value = new StringBuilder();
+            synchronized (samples) {
+                for (Long sample : samples) {
+                    value.append(value.length() == 0 ? "" : ",").append(sample);
+                }
+            }
+            properties.setProperty(entry.getKey(), value.toString());
+        }
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            properties.store(stream, "durations in milliseconds of the last passing runs, oldest first");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Compute the baseline of a list of durations.
+     * @param samples the durations in milliseconds
+     * @return the median and the median absolute deviation of the durations
+     */
+    public static Baseline baseline(List<Long> samples)
+    {
+        return new Baseline(samples);
+    }
+
+    /**
+     * The median and the median absolute deviation of the past durations of a key.
+     * Both are robust to a few outliers, unlike the mean and the standard deviation.
+     */
+    public static final class Baseline {
+        private final int count;
+        private final double median;
+        private final double mad;
+
+        Baseline(List<Long> samples)
+        {
+            this.count = samples.size();
+            List<Double> values = new ArrayList<>();
+            for (Long sample : samples) {
+                values.add(sample.doubleValue());
+            }
+            this.median = median(values);
+            List<Double> deviations = new ArrayList<>();
+            for (Double value : values) {
+                deviations.add(Math.abs(value - median));
+            }
+            this.mad = median(deviations);
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public double getMedian()
+        {
+            return median;
+        }
+
+        public double getMad()
+        {
+            return mad;
+        }
+
+        /**
+         * Get the longest duration still in line with the baseline.
+         * @param k the number of median absolute deviations tolerated above the median
+         * @param minSlackMillis the smallest tolerated slowdown, covers the keys whose durations barely vary
+         * @return {@code median + max(k * MAD, minSlackMillis)} in milliseconds
+         */
+        public double threshold(double k, double minSlackMillis)
+        {
+            return median + Math.max(k * mad, minSlackMillis);
+        }
+
+        private static double median(List<Double> values)
+        {
+            if (values.isEmpty()) {
+                return 0;
+            }
+            List<Double> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            int middle = sorted.size() / 2;
+            return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+        }
+    }
+}
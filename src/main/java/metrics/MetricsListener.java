@@ -0,0 +1,190 @@
+package metrics;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+import pages.Locators;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Records the latency of the driver commands which dominate the test duration: element lookups, navigations,
+ * clicks and typing. The listener is registered on every session through the selenium EventFiringDecorator.
+ */
+public class MetricsListener implements WebDriverListener {
+    /**
+     * The start time of the commands in progress on the current thread.
+     */
+    private static final ThreadLocal<Deque<long[]>> started = ThreadLocal.withInitial(ArrayDeque::new);
+    /**
+     * The browser tag added to every latency.
+     */
+    private final String browser;
+
+    /**
+     * Constructs a new MetricsListener for the sessions of a browser.
+     * @param browser the browser type
+     */
+    public MetricsListener(String browser)
+    {
+        this.browser = browser;
+    }
+
+    /**
+     * Get the name used to tag a locator, the registry key when the locator comes from the registry.
+     * @param locator the locator
+     * @return the locator tag
+     */
+    public static String locatorName(By locator)
+    {
+        return Locators.nameOf(locator);
+    }
+
+    @Override
+    public void beforeFindElement(WebDriver driver, By locator)
+    {
+        start();
+    }
+
+    @Override
+    public void afterFindElement(WebDriver driver, By locator, WebElement result)
+    {
+        stop("findElement", false, "locator", locatorName(locator));
+    }
+
+    @Override
+    public void beforeFindElements(WebDriver driver, By locator)
+    {
+        start();
+    }
+
+    @Override
+    public void afterFindElements(WebDriver driver, By locator, List<WebElement> result)
+    {
+        stop("findElements", false, "locator", locatorName(locator));
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url)
+    {
+        start();
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url)
+    {
+        stop("navigation", false, "host", host(url));
+    }
+
+    @Override
+    public void beforeTo(WebDriver.Navigation navigation, String url)
+    {
+        start();
+    }
+
+    @Override
+    public void afterTo(WebDriver.Navigation navigation, String url)
+    {
+        stop("navigation", false, "host", host(url));
+    }
+
+    @Override
+    public void beforeBack(WebDriver.Navigation navigation)
+    {
+        start();
+    }
+
+    @Override
+    public void afterBack(WebDriver.Navigation navigation)
+    {
+        stop("navigation", false, "host", "back");
+    }
+
+    @Override
+    public void beforeRefresh(WebDriver.Navigation navigation)
+    {
+        start();
+    }
+
+    @Override
+    public void afterRefresh(WebDriver.Navigation navigation)
+    {
+        stop("navigation", false, "host", "refresh");
+    }
+
+    @Override
+    public void beforeClick(WebElement element)
+    {
+        start();
+    }
+
+    @Override
+    public void afterClick(WebElement element)
+    {
+        stop("click", false);
+    }
+
+    @Override
+    public void beforeSendKeys(WebElement element, CharSequence... keysToSend)
+    {
+        start();
+    }
+
+    @Override
+    public void afterSendKeys(WebElement element, CharSequence... keysToSend)
+    {
+        stop("sendKeys", false);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e)
+    {
+        String name = method.getName();
+        boolean driverCommand = target instanceof WebDriver
+                && (name.equals("findElement") || name.equals("findElements") || name.equals("get"));
+        boolean navigationCommand = target instanceof WebDriver.Navigation
+                && (name.equals("to") || name.equals("back") || name.equals("refresh"));
+        boolean elementCommand = target instanceof WebElement && (name.equals("click") || name.equals("sendKeys"));
+        if (driverCommand && name.startsWith("find") && args != null && args.length > 0 && args[0] instanceof By) {
+            stop(name, true, "locator", locatorName((By) args[0]));
+        } else if (driverCommand || navigationCommand) {
+            stop("navigation", true, "host", name.equals("back") || name.equals("refresh") ? name : host(String.valueOf(args[0])));
+        } else if (elementCommand) {
+            stop(name, true);
+        }
+    }
+
+    private void start()
+    {
+        started.get().push(new long[]{System.nanoTime()});
+    }
+
+    private void stop(String metric, boolean failed, String... tags)
+    {
+        long[] start = started.get().poll();
+        if (start == null) {
+            return;
+        }
+        String[] tagged = new String[tags.length + 2];
+        System.arraycopy(tags, 0, tagged, 0, tags.length);
+        tagged[tags.length] = "browser";
+        tagged[tags.length + 1] = browser;
+        StepMetrics.record(metric, System.nanoTime() - start[0], StepMetrics.withOutcome(tagged, failed));
+    }
+
+    private static String host(String url)
+    {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? url : host;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
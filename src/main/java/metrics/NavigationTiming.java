@@ -0,0 +1,175 @@
+package metrics;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import utils.Waits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The timing of the last navigation of a page, read from the Navigation Timing API of the browser.
+ * <p>
+ * All the times are in milliseconds from the start of the navigation. The long tasks are only collected
+ * when the session is captured by {@link NetworkCapture}.
+ */
+public final class NavigationTiming {
+    /**
+     * Reads the navigation entry, or the legacy timing object on the browsers without navigation entries.
+     */
+    private static final String SCRIPT =
+            "var n = performance.getEntriesByType ? performance.getEntriesByType('navigation')[0] : null;"
+            + "var out = {url: location.href};"
+            + "if (n) {"
+            + "  out.ttfb = n.responseStart - n.startTime;"
+            + "  out.domContentLoaded = n.domContentLoadedEventEnd - n.startTime;"
+            + "  out.load = n.loadEventEnd > 0 ? n.loadEventEnd - n.startTime : -1;"
+            + "} else {"
+            + "  var t = performance.timing;"
+            + "  out.ttfb = t.responseStart - t.navigationStart;"
+            + "  out.domContentLoaded = t.domContentLoadedEventEnd - t.navigationStart;"
+            + "  out.load = t.loadEventEnd > 0 ? t.loadEventEnd - t.navigationStart : -1;"
+            + "}"
+            + "out.longTasks = (window.__longTasks || []).map(function (e) { return e.duration; });"
+            + "return out;";
+    /**
+     * The part of a long task above this duration blocks the main thread.
+     */
+    private static final double LONG_TASK_MILLIS = 50;
+
+    /**
+     * The URL of the page.
+     */
+    public final String url;
+    /**
+     * The time to the first byte of the document.
+     */
+    public final double ttfbMillis;
+    /**
+     * The end of the DOMContentLoaded event.
+     */
+    public final double domContentLoadedMillis;
+    /**
+     * The end of the load event.
+     */
+    public final double loadMillis;
+    /**
+     * The duration of every long task of the page.
+     */
+    public final List<Double> longTaskMillis;
+
+    NavigationTiming(String url, double ttfbMillis, double domContentLoadedMillis, double loadMillis, List<Double> longTaskMillis)
+    {
+        this.url = url;
+        this.ttfbMillis = ttfbMillis;
+        this.domContentLoadedMillis = domContentLoadedMillis;
+        this.loadMillis = loadMillis;
+        this.longTaskMillis = Collections.unmodifiableList(longTaskMillis);
+    }
+
+    /**
+     * Read the timing of the current page, waiting until its load event has ended.
+     * @param driver the WebDriver instance to use
+     * @return the timing, the load time is -1 if the page did not finish loading before the default timeout
+     */
+    @SuppressWarnings("unchecked")
+    public static NavigationTiming of(WebDriver driver)
+    {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Map<String, Object> timing;
+        try {
+            timing = Waits.on(driver, Waits.defaultTimeout()).until(d -> {
+                Map<String, Object> answer = (Map<String, Object>) js.executeScript(SCRIPT);
+                return number(answer.get("load")) >= 0 ? answer : null;
+            });
+        } catch (TimeoutException e) {
+            timing = (Map<String, Object>) js.executeScript(SCRIPT);
+        }
+        List<Double> longTasks = new ArrayList<>();
+        if (timing.get("longTasks") instanceof List) {
+            for (Object duration : (List<Object>) timing.get("longTasks")) {
+                longTasks.add(number(duration));
+            }
+        }
+        return new NavigationTiming(String.valueOf(timing.get("url")), number(timing.get("ttfb")),
+                number(timing.get("domContentLoaded")), number(timing.get("load")), longTasks);
+    }
+
+    /**
+     * @return the time the long tasks blocked the main thread beyond 50 ms each
+     */
+    public double totalBlockingMillis()
+    {
+        double blocking = 0;
+        for (double duration : longTaskMillis) {
+            blocking += Math.max(0, duration - LONG_TASK_MILLIS);
+        }
+        return blocking;
+    }
+
+    /**
+     * Record the timing in the step metrics, tagged by page.
+     * @param page the name of the page object
+     * @return this timing
+     */
+    public NavigationTiming record(String page)
+    {
+        StepMetrics.record("page_ttfb", millisToNanos(ttfbMillis), "page", page);
+        StepMetrics.record("page_dom_content_loaded", millisToNanos(domContentLoadedMillis), "page", page);
+        if (loadMillis >= 0) {
+            StepMetrics.record("page_load", millisToNanos(loadMillis), "page", page);
+        }
+        StepMetrics.record("page_blocking", millisToNanos(totalBlockingMillis()), "page", page);
+        return this;
+    }
+
+    /**
+     * Assert the page finished loading within a budget.
+     * @param budget the maximum load time
+     * @return this timing
+     * @throws AssertionError if the page loaded slower or did not finish loading
+     */
+    public NavigationTiming assertLoadedWithin(Duration budget)
+    {
+        if (loadMillis < 0 || loadMillis > budget.toMillis()) {
+            throw new AssertionError("Page " + url + " loaded in " + loadMillis + " ms, the budget is " + budget.toMillis() + " ms");
+        }
+        return this;
+    }
+
+    /**
+     * Assert the long tasks did not block the main thread beyond a budget.
+     * @param budget the maximum total blocking time
+     * @return this timing
+     * @throws AssertionError if the page blocked longer
+     */
+    public NavigationTiming assertBlockingWithin(Duration budget)
+    {
+        if (totalBlockingMillis() > budget.toMillis()) {
+            throw new AssertionError("Page " + url + " blocked the main thread " + totalBlockingMillis()
+                    + " ms, the budget is " + budget.toMillis() + " ms");
+        }
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s ttfb=%.1f ms domContentLoaded=%.1f ms load=%.1f ms longTasks=%d blocking=%.1f ms",
+                url, ttfbMillis, domContentLoadedMillis, loadMillis, longTaskMillis.size(), totalBlockingMillis());
+    }
+
+    private static double number(Object value)
+    {
+        return value instanceof Number ? ((Number) value).doubleValue() : -1;
+    }
+
+    private static long millisToNanos(double millis)
+    {
+        return (long) (Math.max(0, millis) * 1_000_000);
+    }
+}
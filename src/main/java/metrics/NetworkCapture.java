@@ -0,0 +1,217 @@
+package metrics;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import utils.TestConfig;
+import utils.Waits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the network responses and the long tasks of the pages opened by a session through the DevTools protocol.
+ * <p>
+ * The capture is enabled with {@code NetworkCapture=true} and only works on the Chromium browsers.
+ * The responses are kept per navigation: a new document request of the main frame clears the previous ones,
+ * so the page objects can assert on the responses of their page instead of waiting for it to render.
+ * The raw protocol domains are used so the capture does not depend on the browser version.
+ */
+public class NetworkCapture {
+    /**
+     * Collects the long tasks of every document, it is installed before the scripts of the page run.
+     */
+    static final String LONG_TASK_OBSERVER =
+            "window.__longTasks = [];"
+            + "try {"
+            + "  new PerformanceObserver(function (list) {"
+            + "    list.getEntries().forEach(function (e) { window.__longTasks.push({start: e.startTime, duration: e.duration}); });"
+            + "  }).observe({entryTypes: ['longtask']});"
+            + "} catch (e) {}";
+    /**
+     * The capture of every session it is attached to.
+     */
+    private static final Map<WebDriver, NetworkCapture> captures = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The DevTools connection of the session.
+     */
+    private final DevTools devTools;
+    /**
+     * The responses received since the last navigation of the main frame.
+     */
+    private final List<Response> responses = new CopyOnWriteArrayList<>();
+    /**
+     * The id of the main frame, null until the first navigation.
+     */
+    private volatile String mainFrameId;
+
+    private NetworkCapture(DevTools devTools)
+    {
+        this.devTools = devTools;
+    }
+
+    /**
+     * @return true if the capture is enabled with {@code NetworkCapture=true}
+     */
+    public static boolean isEnabled()
+    {
+        return TestConfig.get().getBoolean("NetworkCapture", false);
+    }
+
+    /**
+     * Start capturing the network of a session.
+     * @param driver the session
+     * @return the capture, or null if the browser does not support the DevTools protocol
+     */
+    public static NetworkCapture attach(WebDriver driver)
+    {
+        if (!(driver instanceof HasDevTools)) {
+            System.out.println("Network capture is not supported by " + driver.getClass().getSimpleName() + ".");
+            return null;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkCapture capture = new NetworkCapture(devTools);
+        capture.start();
+        captures.put(driver, capture);
+        return capture;
+    }
+
+    /**
+     * Get the capture attached to a session.
+     * @param driver the session
+     * @return the capture, or null if the session is not captured
+     */
+    public static NetworkCapture of(WebDriver driver)
+    {
+        return captures.get(driver);
+    }
+
+    /**
+     * @return the responses received since the last navigation, in arrival order
+     */
+    public List<Response> responses()
+    {
+        return new ArrayList<>(responses);
+    }
+
+    /**
+     * Wait for a response of the current page.
+     * @param driver the captured session
+     * @param urlPart a part of the response URL
+     * @param timeout the maximum time to wait
+     * @return the first matching response
+     * @throws org.openqa.selenium.TimeoutException if no response matches before the timeout
+     */
+    public Response awaitResponse(WebDriver driver, String urlPart, Duration timeout)
+    {
+        return Waits.on(driver, timeout).until(d -> {
+            for (Response response : responses) {
+                if (response.url.contains(urlPart)) {
+                    return response;
+                }
+            }
+            return null;
+        });
+    }
+
+    private void start()
+    {
+        devTools.send(new Command<>("Network.enable", new HashMap<>()));
+        devTools.send(new Command<>("Page.enable", new HashMap<>()));
+        Map<String, Object> script = new HashMap<>();
+        script.put("source", LONG_TASK_OBSERVER);
+        devTools.send(new Command<>("Page.addScriptToEvaluateOnNewDocument", script));
+        devTools.addListener(new Event<Map<String, Object>>("Page.frameNavigated", input -> input.read(Json.MAP_TYPE)),
+                this::onFrameNavigated);
+        devTools.addListener(new Event<Map<String, Object>>("Network.requestWillBeSent", input -> input.read(Json.MAP_TYPE)),
+                this::onRequest);
+        devTools.addListener(new Event<Map<String, Object>>("Network.responseReceived", input -> input.read(Json.MAP_TYPE)),
+                this::onResponse);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onFrameNavigated(Map<String, Object> event)
+    {
+        Map<String, Object> frame = (Map<String, Object>) event.get("frame");
+        if (frame != null && frame.get("parentId") == null) {
+            mainFrameId = String.valueOf(frame.get("id"));
+        }
+    }
+
+    private void onRequest(Map<String, Object> event)
+    {
+        boolean document = "Document".equals(event.get("type"));
+        boolean mainFrame = mainFrameId == null || mainFrameId.equals(String.valueOf(event.get("frameId")));
+        if (document && mainFrame) {
+            responses.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onResponse(Map<String, Object> event)
+    {
+        Map<String, Object> response = (Map<String, Object>) event.get("response");
+        if (response == null) {
+            return;
+        }
+        Object status = response.get("status");
+        Object length = response.get("encodedDataLength");
+        responses.add(new Response(String.valueOf(response.get("url")),
+                status instanceof Number ? ((Number) status).intValue() : 0,
+                String.valueOf(response.get("mimeType")),
+                String.valueOf(event.get("type")),
+                length instanceof Number ? ((Number) length).longValue() : 0));
+    }
+
+    /**
+     * A network response received by the page.
+     */
+    public static class Response {
+        /**
+         * The URL of the response.
+         */
+        public final String url;
+        /**
+         * The HTTP status code.
+         */
+        public final int status;
+        /**
+         * The MIME type of the body.
+         */
+        public final String mimeType;
+        /**
+         * The resource type reported by the browser, e.g. Document, Script or XHR.
+         */
+        public final String resourceType;
+        /**
+         * The number of bytes received for the headers so far.
+         */
+        public final long encodedLength;
+
+        Response(String url, int status, String mimeType, String resourceType, long encodedLength)
+        {
+            this.url = url;
+            this.status = status;
+            this.mimeType = mimeType;
+            this.resourceType = resourceType;
+            this.encodedLength = encodedLength;
+        }
+
+        @Override
+        public String toString()
+        {
+            return status + " " + resourceType + " " + url;
+        }
+    }
+}
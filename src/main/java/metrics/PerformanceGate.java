@@ -0,0 +1,228 @@
+package metrics;
+
+import io.qameta.allure.Allure;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import utils.TestConfig;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Compares the duration of every passing test, data row and {@code @Step} with its rolling baseline.
+ * <p>
+ * The baseline of a key is the median and the median absolute deviation of its last passing runs kept in a
+ * {@link DurationHistory}. A run slower than {@code median + k * MAD} is a regression, the slack never goes below
+ * {@code PerfMinSlackMillis} so the keys whose durations barely vary are not flagged for noise.
+ * {@code PerfGate} in the configuration file selects what happens to a regression:
+ * <ul>
+ *     <li>off: nothing is compared nor recorded, the default
+ *     <li>mark: the regression is logged and listed in the trend attached to the report
+ *     <li>fail: the test is also failed
+ * </ul>
+ * The data rows are keyed by the content of the row and the steps by the page object and the step name.
+ */
+public class PerformanceGate implements IInvokedMethodListener {
+    /**
+     * The history of the run, loaded on first use.
+     */
+    private static volatile DurationHistory history;
+    /**
+     * The baseline of every key before the run, so the durations of the run do not move it.
+     */
+    private static final Map<String, DurationHistory.Baseline> baselines = new ConcurrentHashMap<>();
+    /**
+     * The durations of the run and the number of regressions keyed by test, row or step.
+     */
+    private static final Map<String, Trend> trends = new ConcurrentSkipListMap<>();
+    /**
+     * The step durations recorded on the current thread since its last test ended, as step key and milliseconds.
+     */
+    private static final ThreadLocal<List<Object[]>> steps = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * @return the mode selected by {@code PerfGate}: off, mark or fail
+     */
+    public static String mode()
+    {
+        return TestConfig.get().get("PerfGate", "off").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true if the durations are compared and recorded
+     */
+    public static boolean isEnabled()
+    {
+        return !mode().equals("off");
+    }
+
+    /**
+     * Record the duration of a passing step of the running test, called by {@link StepTimingAspect}.
+     * @param page the page object declaring the step
+     * @param step the step name
+     * @param nanos the duration in nanoseconds
+     */
+    public static void recordStep(String page, String step, long nanos)
+    {
+        if (isEnabled()) {
+            steps.get().add(new Object[]{"step:" + page + "." + step, nanos / 1_000_000});
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult)
+    {
+        if (!isEnabled() || !method.isTestMethod()) {
+            return;
+        }
+        List<Object[]> stepDurations = new ArrayList<>(steps.get());
+        steps.get().clear();
+        if (testResult.getStatus() != ITestResult.SUCCESS) {
+            return;
+        }
+        String name = testResult.getMethod().getQualifiedName();
+        long end = testResult.getEndMillis() > 0 ? testResult.getEndMillis() : System.currentTimeMillis();
+        long millis = end - testResult.getStartMillis();
+        List<String> regressions = new ArrayList<>();
+        check("test:" + name, millis, regressions);
+        Object[] parameters = testResult.getParameters();
+        if (parameters != null && parameters.length > 0) {
+            check("row:" + name + Arrays.deepToString(parameters), millis, regressions);
+        }
+        for (Object[] step : stepDurations) {
+            check((String) step[0], (Long) step[1], regressions);
+        }
+        if (regressions.isEmpty()) {
+            return;
+        }
+        String message = "Performance regression in " + name + ": " + String.join("; ", regressions);
+        System.out.println(message);
+        Reporter.log(message);
+        if (mode().equals("fail")) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError(message));
+        }
+    }
+
+    /**
+     * Print the trend of every key, attach it to the Allure report and write the history file.
+     */
+    public static synchronized void publish()
+    {
+        if (history == null || trends.isEmpty()) {
+            return;
+        }
+        String summary = summary();
+        System.out.println(summary);
+        Allure.addAttachment("Performance trend", "text/plain", summary);
+        try {
+            history.save();
+        } catch (IOException e) {
+            System.out.println("Failed to save the duration history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the baseline, the durations of the run and the regressions of every key in milliseconds
+     */
+    public static String summary()
+    {
+        StringBuilder out = new StringBuilder(String.format("%8s %8s %8s %8s %8s %8s %6s  %s%n",
+                "history", "median", "MAD", "limit", "latest", "change", "slow", "key"));
+        for (Map.Entry<String, Trend> entry : trends.entrySet()) {
+            DurationHistory.Baseline baseline = baselines.get(entry.getKey());
+            Trend trend = entry.getValue();
+            boolean known = baseline.getCount() >= minSamples();
+            out.append(String.format("%8d %8.0f %8.0f %8s %8d %8s %6d  %s%n", baseline.getCount(), baseline.getMedian(),
+                    baseline.getMad(), known ? String.format("%.0f", threshold(baseline)) : "-", trend.latest,
+                    known && baseline.getMedian() > 0
+                            ? String.format("%+.0f%%", (trend.latest - baseline.getMedian()) * 100 / baseline.getMedian())
+                            : "new", trend.regressions, entry.getKey()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Compare a duration with the baseline of its key and append it to the history.
+     */
+    private static void check(String key, long millis, List<String> regressions)
+    {
+        DurationHistory.Baseline baseline = baselines.computeIfAbsent(key,
+                k -> DurationHistory.baseline(history().samples(k)));
+        Trend trend = trends.computeIfAbsent(key, k -> new Trend());
+        boolean regressed = baseline.getCount() >= minSamples() && millis > threshold(baseline);
+        synchronized (trend) {
+            trend.latest = millis;
+            if (regressed) {
+                trend.regressions++;
+            }
+        }
+        if (regressed) {
+            regressions.add(String.format("%s took %d ms, baseline %.0f ms, limit %.0f ms", key, millis,
+                    baseline.getMedian(), threshold(baseline)));
+        }
+        history().add(key, millis);
+    }
+
+    private static double threshold(DurationHistory.Baseline baseline)
+    {
+        return baseline.threshold(Double.parseDouble(TestConfig.get().get("PerfMadK", "3")),
+                TestConfig.get().getInt("PerfMinSlackMillis", 250));
+    }
+
+    private static int minSamples()
+    {
+        return TestConfig.get().getInt("PerfMinSamples", 5);
+    }
+
+    /**
+     * Record the duration of a keyword sheet, used to schedule the longest sheets first.
+     * @param sheetName the name of the sheet
+     * @param millis the duration in milliseconds
+     */
+    public static void recordSheet(String sheetName, long millis)
+    {
+        if (isEnabled()) {
+            trends.computeIfAbsent("sheet:" + sheetName, k -> new Trend()).latest = millis;
+            baselines.computeIfAbsent("sheet:" + sheetName, k -> DurationHistory.baseline(history().samples(k)));
+            history().add("sheet:" + sheetName, millis);
+        }
+    }
+
+    /**
+     * @return the history of the run, loaded from {@code PerfHistoryFile}
+     */
+    public static DurationHistory history()
+    {
+        DurationHistory current = history;
+        if (current == null) {
+            synchronized (PerformanceGate.class) {
+                current = history;
+                if (current == null) {
+                    current = DurationHistory.open(
+                            Paths.get(TestConfig.get().get("PerfHistoryFile", "target/perf/durations.properties")),
+                            TestConfig.get().getInt("PerfHistorySize", 20));
+                    history = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The latest duration of a key and its number of regressions during the run.
+     */
+    private static class Trend {
+        private long latest;
+        private int regressions;
+    }
+}
@@ -0,0 +1,260 @@
+package metrics;
+
+import io.qameta.allure.Allure;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import utils.TestConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the latency histograms recorded during the run.
+ * <p>
+ * Every timer is identified by a metric name, e.g. {@code step}, {@code keyword} or {@code findElement},
+ * and by its tags, e.g. the page object, the keyword, the locator and the browser. The latencies are recorded
+ * in microseconds in HdrHistogram concurrent histograms. Recording a value in a histogram does not allocate,
+ * but the tags and the key of the timer are built on every call, so the callers check {@link #isEnabled()}
+ * before building their tags. With {@code Metrics=false} nothing is recorded.
+ * At the end of the run the timers are exported to a Prometheus text file, printed as a percentile summary
+ * and attached to the Allure report.
+ */
+public class StepMetrics {
+    /**
+     * The highest latency tracked by the histograms: one hour in microseconds.
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+    /**
+     * The quantiles exported for every timer.
+     */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    /**
+     * The timers keyed by metric name and tags.
+     */
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the instrumentation is enabled with {@code Metrics=true}, the default
+     */
+    public static boolean isEnabled()
+    {
+        return TestConfig.get().getBoolean("Metrics", true);
+    }
+
+    /**
+     * Record a latency, nothing is recorded when the instrumentation is disabled.
+     * @param metric the metric name
+     * @param nanos the latency in nanoseconds
+     * @param tags the tags as alternating names and values
+     */
+    public static void record(String metric, long nanos, String... tags)
+    {
+        if (!isEnabled()) {
+            return;
+        }
+        timer(metric, tags).histogram.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * Run an action and record its latency, failures are recorded with the {@code outcome=error} tag.
+     * The action is only run when the instrumentation is disabled.
+     * @param metric the metric name
+     * @param action the timed action
+     * @param tags the tags as alternating names and values
+     * @return the value returned by the action
+     */
+    public static <T> T time(String metric, Supplier<T> action, String... tags)
+    {
+        if (!isEnabled()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            record(metric, System.nanoTime() - start, withOutcome(tags, failed));
+        }
+    }
+
+    /**
+     * Add the outcome tag to a list of tags.
+     * @param tags the tags as alternating names and values
+     * @param failed true if the timed action failed
+     * @return the tags with the outcome
+     */
+    public static String[] withOutcome(String[] tags, boolean failed)
+    {
+        String[] tagged = new String[tags.length + 2];
+        System.arraycopy(tags, 0, tagged, 0, tags.length);
+        tagged[tags.length] = "outcome";
+        tagged[tags.length + 1] = failed ? "error" : "ok";
+        return tagged;
+    }
+
+    /**
+     * Get the recorded histogram of a timer.
+     * @param metric the metric name
+     * @param tags the tags as alternating names and values
+     * @return a copy of the histogram, empty if nothing was recorded
+     */
+    public static Histogram histogram(String metric, String... tags)
+    {
+        Timer timer = timers.get(key(metric, tags));
+        return timer == null ? new Histogram(3) : timer.histogram.copy();
+    }
+
+    /**
+     * Drop every recorded latency.
+     */
+    public static void reset()
+    {
+        timers.clear();
+    }
+
+    /**
+     * Export the timers to the Prometheus file, print the summary and attach it to the Allure report.
+     */
+    public static void publish()
+    {
+        if (timers.isEmpty()) {
+            return;
+        }
+        String summary = summary();
+        System.out.println(summary);
+        Path file = Paths.get(TestConfig.get().get("MetricsFile", "target/metrics/framework-metrics.prom"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, prometheus().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Failed to write the metrics to " + file + ": " + e.getMessage());
+        }
+        Allure.addAttachment("Step timings", "text/plain", summary);
+    }
+
+    /**
+     * @return the timers in the Prometheus text exposition format
+     */
+    public static String prometheus()
+    {
+        StringBuilder out = new StringBuilder();
+        String previousMetric = null;
+        for (Timer timer : sortedTimers()) {
+            String name = "framework_" + timer.metric.replaceAll("[^A-Za-z0-9_]", "_") + "_seconds";
+            if (!name.equals(previousMetric)) {
+                out.append("# TYPE ").append(name).append(" summary\n");
+                previousMetric = name;
+            }
+            Histogram histogram = timer.histogram.copy();
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{').append(timer.labels()).append(timer.tags.isEmpty() ? "" : ",")
+                        .append("quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            String labels = timer.tags.isEmpty() ? "" : "{" + timer.labels() + "}";
+            out.append(name).append("_sum").append(labels).append(' ')
+                    .append(seconds((long) (histogram.getMean() * histogram.getTotalCount()))).append('\n');
+            out.append(name).append("_count").append(labels).append(' ').append(histogram.getTotalCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return the percentiles of every timer in milliseconds
+     */
+    public static String summary()
+    {
+        StringBuilder out = new StringBuilder(String.format("%-14s %8s %10s %10s %10s %10s  %s%n",
+                "metric", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "tags"));
+        for (Timer timer : sortedTimers()) {
+            Histogram histogram = timer.histogram.copy();
+            out.append(String.format("%-14s %8d %10.1f %10.1f %10.1f %10.1f  %s%n", timer.metric, histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0, timer.tags));
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return the timers sorted by metric name then by descending p95
+     */
+    private static List<Timer> sortedTimers()
+    {
+        List<Timer> sorted = new ArrayList<>(timers.values());
+        sorted.sort(Comparator.comparing((Timer timer) -> timer.metric)
+                .thenComparing(timer -> -timer.histogram.getValueAtPercentile(95)));
+        return sorted;
+    }
+
+    private static String seconds(long micros)
+    {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+
+    private static Timer timer(String metric, String[] tags)
+    {
+        String key = key(metric, tags);
+        Timer timer = timers.get(key);
+        return timer != null ? timer : timers.computeIfAbsent(key, k -> new Timer(metric, tags));
+    }
+
+    private static String key(String metric, String[] tags)
+    {
+        StringBuilder key = new StringBuilder(metric);
+        for (String tag : tags) {
+            key.append('\u0000').append(tag);
+        }
+        return key.toString();
+    }
+
+    /**
+     * A histogram and the metric name and tags it is recorded for.
+     */
+    private static class Timer {
+        private final String metric;
+        private final Map<String, String> tags;
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        Timer(String metric, String[] tags)
+        {
+            this.metric = metric;
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i + 1 < tags.length; i += 2) {
+                map.put(tags[i], tags[i + 1] == null ? "" : tags[i + 1]);
+            }
+            this.tags = Collections.unmodifiableMap(map);
+        }
+
+        /**
+         * @return the tags as Prometheus labels
+         */
+        String labels()
+        {
+            StringBuilder labels = new StringBuilder();
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                if (labels.length() > 0) {
+                    labels.append(',');
+                }
+                labels.append(tag.getKey()).append("=\"")
+                        .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                        .append('"');
+            }
+            return labels.toString();
+        }
+    }
+}
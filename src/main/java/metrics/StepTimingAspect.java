@@ -0,0 +1,40 @@
+package metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Records the latency of every {@code @Step} method, tagged by the page object and the step name.
+ * The passing steps are also compared with their baseline by {@link PerformanceGate}.
+ * The aspect is woven at load time by the AspectJ agent configured in the surefire plugin, see META-INF/aop.xml.
+ */
+@Aspect
+public class StepTimingAspect {
+    @Around("execution(@io.qameta.allure.Step * *(..))")
+    public Object timeStep(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        if (!StepMetrics.isEnabled() && !PerformanceGate.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            String page = signature.getDeclaringType().getSimpleName();
+            if (StepMetrics.isEnabled()) {
+                StepMetrics.record("step", nanos, StepMetrics.withOutcome(new String[]{
+                        "page", page, "step", signature.getName()}, failed));
+            }
+            if (!failed) {
+                PerformanceGate.recordStep(page, signature.getName(), nanos);
+            }
+        }
+    }
+}
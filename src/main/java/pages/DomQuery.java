@@ -0,0 +1,268 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utils.Waits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk DOM query evaluated in the browser with a single JavaScript call.
+ * <p>
+ * Every added locator is resolved in the page and only its count, and optionally the texts and attributes
+ * of the matched elements, are sent back. No element reference crosses the WebDriver wire, so a query
+ * over many elements and many locators costs one round trip instead of one per element and per property.
+ * Locators which can not be evaluated in the page, and drivers without JavaScript, fall back to findElements.
+ */
+public class DomQuery {
+    /**
+     * Evaluates the locator specs in the page, the specs are {type, value, texts, attributes}.
+     */
+    private static final String SCRIPT =
+            "var specs = arguments[0], out = [];"
+            + "for (var i = 0; i < specs.length; i++) {"
+            + "  var s = specs[i], nodes = [];"
+            + "  if (s.type === 'xpath') {"
+            + "    var r = document.evaluate(s.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "    for (var j = 0; j < r.snapshotLength; j++) { nodes.push(r.snapshotItem(j)); }"
+            + "  } else {"
+            + "    nodes = Array.prototype.slice.call(document.querySelectorAll(s.value));"
+            + "  }"
+            + "  var res = {count: nodes.length};"
+            + "  if (s.texts) { res.texts = nodes.map(function (n) { return (n.innerText || n.textContent || '').trim(); }); }"
+            + "  res.attributes = {};"
+            + "  s.attributes.forEach(function (a) { res.attributes[a] = nodes.map(function (n) { return n.getAttribute(a); }); });"
+            + "  out.push(res);"
+            + "}"
+            + "return out;";
+
+    /**
+     * The WebDriver instance used to run the query.
+     */
+    private final WebDriver driver;
+    /**
+     * The locators of the query in the order they were added.
+     */
+    private final List<Spec> specs = new ArrayList<>();
+
+    /**
+     * Constructs a new empty query.
+     * @param driver the WebDriver instance to use
+     */
+    public DomQuery(WebDriver driver)
+    {
+        this.driver = driver;
+    }
+
+    /**
+     * Add a locator to the query.
+     * @param locator the locator of the elements
+     * @param texts true to return the visible texts of the elements
+     * @param attributes the attributes returned for every element
+     * @return this query
+     */
+    public DomQuery add(By locator, boolean texts, String... attributes)
+    {
+        specs.add(new Spec(locator, texts, Arrays.asList(attributes)));
+        return this;
+    }
+
+    /**
+     * Count the elements matching a locator in one round trip.
+     * @param driver the WebDriver instance to use
+     * @param locator the locator of the elements
+     * @return the number of matching elements
+     */
+    public static int count(WebDriver driver, By locator)
+    {
+        return new DomQuery(driver).add(locator, false).run().get(0).count;
+    }
+
+    /**
+     * Wait until at least one element matches a locator, polling the count instead of the elements.
+     * @param driver the WebDriver instance to use
+     * @param locator the locator of the elements
+     * @param timeout the maximum time to wait
+     * @return the number of matching elements, 0 if none appeared before the timeout
+     */
+    public static int awaitCount(WebDriver driver, By locator, Duration timeout)
+    {
+        try {
+            return Waits.on(driver, timeout).until(d -> {
+                int count = count(d, locator);
+                return count > 0 ? count : null;
+            });
+        } catch (TimeoutException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Run the query.
+     * @return one result per added locator, in the same order
+     */
+    @SuppressWarnings("unchecked")
+    public List<Result> run()
+    {
+        List<Map<String, Object>> scriptSpecs = new ArrayList<>();
+        List<Integer> scriptIndexes = new ArrayList<>();
+        Result[] results = new Result[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            Map<String, Object> scriptSpec = specs.get(i).toScript();
+            if (scriptSpec != null && driver instanceof JavascriptExecutor) {
+                scriptSpecs.add(scriptSpec);
+                scriptIndexes.add(i);
+            } else {
+                results[i] = fallback(specs.get(i));
+            }
+        }
+        if (!scriptSpecs.isEmpty()) {
+            List<Object> answers = (List<Object>) ((JavascriptExecutor) driver).executeScript(SCRIPT, scriptSpecs);
+            for (int i = 0; i < answers.size(); i++) {
+                results[scriptIndexes.get(i)] = Result.fromScript((Map<String, Object>) answers.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Resolve a locator with findElements, one round trip per element and property.
+     */
+    private Result fallback(Spec spec)
+    {
+        List<WebElement> elements = driver.findElements(spec.locator);
+        List<String> texts = new ArrayList<>();
+        Map<String, List<String>> attributes = new LinkedHashMap<>();
+        for (String attribute : spec.attributes) {
+            attributes.put(attribute, new ArrayList<>());
+        }
+        for (WebElement element : elements) {
+            if (spec.texts) {
+                texts.add(element.getText().trim());
+            }
+            for (String attribute : spec.attributes) {
+                attributes.get(attribute).add(element.getAttribute(attribute));
+            }
+        }
+        return new Result(elements.size(), texts, attributes);
+    }
+
+    /**
+     * A locator of the query and the data requested for its elements.
+     */
+    private static class Spec {
+        private final By locator;
+        private final boolean texts;
+        private final List<String> attributes;
+
+        Spec(By locator, boolean texts, List<String> attributes)
+        {
+            this.locator = locator;
+            this.texts = texts;
+            this.attributes = attributes;
+        }
+
+        /**
+         * Translate the locator to an XPath or a CSS selector evaluated by the script.
+         * @return the script spec, or null if the locator type is not supported in the page
+         */
+        Map<String, Object> toScript()
+        {
+            String description = locator.toString();
+            int separator = description.indexOf(": ");
+            if (!description.startsWith("By.") || separator < 0) {
+                return null;
+            }
+            String type = description.substring(3, separator);
+            String value = description.substring(separator + 2);
+            String quoted = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+            Map<String, Object> spec = new HashMap<>();
+            switch (type) {
+                case "xpath":
+                    spec.put("type", "xpath");
+                    spec.put("value", value);
+                    break;
+                case "cssSelector":
+                    spec.put("type", "css");
+                    spec.put("value", value);
+                    break;
+                case "id":
+                    spec.put("type", "css");
+                    spec.put("value", "[id=" + quoted + "]");
+                    break;
+                case "name":
+                    spec.put("type", "css");
+                    spec.put("value", "[name=" + quoted + "]");
+                    break;
+                case "tagName":
+                    spec.put("type", "css");
+                    spec.put("value", value);
+                    break;
+                default:
+                    return null;
+            }
+            spec.put("texts", texts);
+            spec.put("attributes", attributes);
+            return spec;
+        }
+    }
+
+    /**
+     * The count, texts and attributes of the elements matching one locator.
+     */
+    public static class Result {
+        /**
+         * The number of matching elements.
+         */
+        public final int count;
+        /**
+         * The visible texts of the elements, empty if they were not requested.
+         */
+        public final List<String> texts;
+        /**
+         * The requested attributes of the elements keyed by attribute name.
+         */
+        public final Map<String, List<String>> attributes;
+
+        Result(int count, List<String> texts, Map<String, List<String>> attributes)
+        {
+            this.count = count;
+            this.texts = Collections.unmodifiableList(texts);
+            this.attributes = Collections.unmodifiableMap(attributes);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Result fromScript(Map<String, Object> answer)
+        {
+            int count = ((Number) answer.get("count")).intValue();
+            List<String> texts = new ArrayList<>();
+            if (answer.get("texts") != null) {
+                for (Object text : (List<Object>) answer.get("texts")) {
+                    texts.add(text == null ? null : text.toString());
+                }
+            }
+            Map<String, List<String>> attributes = new LinkedHashMap<>();
+            Map<String, Object> scriptAttributes = (Map<String, Object>) answer.get("attributes");
+            if (scriptAttributes != null) {
+                for (Map.Entry<String, Object> attribute : scriptAttributes.entrySet()) {
+                    List<String> values = new ArrayList<>();
+                    for (Object value : (List<Object>) attribute.getValue()) {
+                        values.add(value == null ? null : value.toString());
+                    }
+                    attributes.put(attribute.getKey(), values);
+                }
+            }
+            return new Result(count, texts, attributes);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+import utils.TestConfig;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the elements found by the page objects and the keyword executor on the current page of a session.
+ * <p>
+ * {@link #element(By)} returns a lazy proxy: the element is found on its first use, then every page object and
+ * keyword step using the same locator reuses it without a findElement round trip. The cache is cleared when the
+ * page changes:
+ * <ul>
+ *     <li>on a navigation through the driver, reported by {@link #navigationListener()}
+ *     <li>after a click or a submit, when the identity of the document differs from the cached one
+ *     <li>for one locator, when its element is stale, the element is then found again and the call is retried
+ * </ul>
+ * {@code ElementCache=false} in the configuration file turns the cache off, the proxies then find their element
+ * on every call like a plain locator.
+ */
+public class ElementCache {
+    /**
+     * Marks the document with a random token on its first call and returns it, a new document gets a new token.
+     */
+    private static final String DOCUMENT_TOKEN_SCRIPT =
+            "return window.__elementCacheDocument || (window.__elementCacheDocument = Math.random().toString(36).slice(2));";
+    /**
+     * The caches keyed by the session they were registered or created for, an entry goes away with its session
+     * because the cache only holds its session weakly.
+     */
+    private static final Map<WebDriver, ElementCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * The lookups of all the sessions answered from a cache.
+     */
+    private static final LongAdder totalHits = new LongAdder();
+    /**
+     * The lookups of all the sessions which needed a findElement round trip.
+     */
+    private static final LongAdder totalMisses = new LongAdder();
+    /**
+     * The stale elements of all the sessions found again.
+     */
+    private static final LongAdder totalStale = new LongAdder();
+
+    /**
+     * The session the elements are found on, held weakly so the entry of {@link #caches} does not keep it alive.
+     */
+    private volatile WeakReference<WebDriver> driver = new WeakReference<>(null);
+    /**
+     * The elements of the current page keyed by locator.
+     */
+    private final Map<By, WebElement> elements = new ConcurrentHashMap<>();
+    /**
+     * The token of the document the elements were found on, null if it is not known yet.
+     */
+    private volatile String documentToken;
+    /**
+     * Whether a click or a submit may have changed the document since the last lookup.
+     */
+    private volatile boolean maybeNavigated;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Get the cache of a session, created on first use.
+     * @param driver the session
+     * @return the cache
+     */
+    public static ElementCache of(WebDriver driver)
+    {
+        synchronized (caches) {
+            ElementCache cache = caches.get(driver);
+            if (cache == null) {
+                cache = new ElementCache();
+                cache.driver = new WeakReference<>(driver);
+                caches.put(driver, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Bind a cache to the session it finds its elements on, used when its navigation listener decorates the session.
+     * @param driver the decorated session
+     * @param cache the cache whose listener decorates the session
+     */
+    public static void register(WebDriver driver, ElementCache cache)
+    {
+        cache.driver = new WeakReference<>(driver);
+        caches.put(driver, cache);
+    }
+
+    /**
+     * Drop the cache of a session which is quit or discarded.
+     * @param driver the session
+     */
+    public static void forget(WebDriver driver)
+    {
+        ElementCache cache = caches.remove(driver);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * @return true if the elements are cached, {@code ElementCache=true} by default
+     */
+    public static boolean isEnabled()
+    {
+        return TestConfig.get().getBoolean("ElementCache", true);
+    }
+
+    /**
+     * Get the lazy proxy of the element found by a locator on the current page.
+     * @param locator the locator of the element
+     * @return the proxy, the element is found on the first call
+     */
+    public WebElement element(By locator)
+    {
+        return (WebElement) Proxy.newProxyInstance(ElementCache.class.getClassLoader(),
+                new Class<?>[]{WebElement.class, WrapsElement.class}, new CachedElement(locator));
+    }
+
+    /**
+     * Drop every cached element, the next lookups find their element again.
+     */
+    public void invalidate()
+    {
+        if (!elements.isEmpty()) {
+            invalidations.increment();
+        }
+        elements.clear();
+        documentToken = null;
+        maybeNavigated = false;
+    }
+
+    /**
+     * @return a listener clearing the cache on every navigation of the decorated session
+     */
+    public WebDriverListener navigationListener()
+    {
+        return new NavigationListener(this);
+    }
+
+    /**
+     * @return the lookups answered from the cache
+     */
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return the lookups which needed a findElement round trip
+     */
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return the stale elements found again
+     */
+    public long staleLookups()
+    {
+        return stale.sum();
+    }
+
+    /**
+     * @return the number of times the cached elements were dropped because the page changed
+     */
+    public long invalidations()
+    {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return the hits, misses and stale lookups of all the sessions
+     */
+    public static String summary()
+    {
+        long hitCount = totalHits.sum();
+        long lookups = hitCount + totalMisses.sum();
+        return String.format("Element cache: %d lookups, %d hits (%.1f%%) saved a findElement round trip, "
+                + "%d misses, %d stale elements found again", lookups, hitCount,
+                lookups == 0 ? 0.0 : hitCount * 100.0 / lookups, totalMisses.sum(), totalStale.sum());
+    }
+
+    /**
+     * Print the hits and misses of all the sessions.
+     */
+    public static void publish()
+    {
+        if (totalHits.sum() + totalMisses.sum() > 0) {
+            System.out.println(summary());
+        }
+    }
+
+    /**
+     * Find the element of a locator, from the cache when it is valid.
+     */
+    private WebElement lookup(By locator)
+    {
+        if (!isEnabled()) {
+            misses.increment();
+            totalMisses.increment();
+            return driver().findElement(locator);
+        }
+        if (maybeNavigated) {
+            verifyDocument();
+        }
+        WebElement element = elements.get(locator);
+        if (element != null) {
+            hits.increment();
+            totalHits.increment();
+            return element;
+        }
+        misses.increment();
+        totalMisses.increment();
+        element = driver().findElement(locator);
+        elements.put(locator, element);
+        return element;
+    }
+
+    /**
+     * Clear the cache if the document changed since the elements were found, the elements found before the
+     * document token was known are dropped.
+     */
+    private void verifyDocument()
+    {
+        maybeNavigated = false;
+        if (elements.isEmpty()) {
+            return;
+        }
+        WebDriver driver = driver();
+        String token;
+        try {
+            token = driver instanceof JavascriptExecutor
+                    ? String.valueOf(((JavascriptExecutor) driver).executeScript(DOCUMENT_TOKEN_SCRIPT))
+                    : driver.getCurrentUrl();
+        } catch (RuntimeException e) {
+            invalidate();
+            return;
+        }
+        if (!token.equals(documentToken)) {
+            invalidate();
+        }
+        documentToken = token;
+    }
+
+    /**
+     * @return the session of the cache
+     * @throws IllegalStateException if the session was discarded
+     */
+    private WebDriver driver()
+    {
+        WebDriver current = driver.get();
+        if (current == null) {
+            throw new IllegalStateException("The session of the element cache was discarded");
+        }
+        return current;
+    }
+
+    /**
+     * Forget the stale element of a locator.
+     */
+    private void evict(By locator, WebElement element)
+    {
+        elements.remove(locator, element);
+        stale.increment();
+        totalStale.increment();
+    }
+
+    /**
+     * Clears its cache on every navigation of the decorated session.
+     * <ul>
+     *     <li>public, the EventFiringDecorator calls the listener methods reflectively and ignores the ones
+     *     it cannot access
+     * </ul>
+     */
+    public static class NavigationListener implements WebDriverListener {
+        /**
+         * The cache cleared on navigation.
+         */
+        private final ElementCache cache;
+
+        /**
+         * @param cache the cache cleared on navigation
+         */
+        public NavigationListener(ElementCache cache)
+        {
+            this.cache = cache;
+        }
+
+        @Override
+        public void afterGet(WebDriver driver, String url)
+        {
+            cache.invalidate();
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, String url)
+        {
+            cache.invalidate();
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, URL url)
+        {
+            cache.invalidate();
+        }
+
+        @Override
+        public void afterBack(WebDriver.Navigation navigation)
+        {
+            cache.invalidate();
+        }
+
+        @Override
+        public void afterForward(WebDriver.Navigation navigation)
+        {
+            cache.invalidate();
+        }
+
+        @Override
+        public void afterRefresh(WebDriver.Navigation navigation)
+        {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * The lazy element of a locator, found through the cache on every call.
+     */
+    private class CachedElement implements InvocationHandler {
+        private final By locator;
+
+        CachedElement(By locator)
+        {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName()) {
+                case "equals":
+                    return args != null && args.length == 1 && proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "cached element " + Locators.nameOf(locator);
+                case "getWrappedElement":
+                    return lookup(locator);
+                default:
+                    break;
+            }
+            WebElement element = lookup(locator);
+            Object result;
+            try {
+                result = call(element, method, args);
+            } catch (StaleElementReferenceException e) {
+                evict(locator, element);
+                result = call(lookup(locator), method, args);
+            }
+            if (method.getName().equals("click") || method.getName().equals("submit")) {
+                maybeNavigated = true;
+            }
+            return result;
+        }
+
+        private Object call(WebElement element, Method method, Object[] args) throws Throwable
+        {
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package pages;
+
+import org.openqa.selenium.By;
+import utils.TestConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Central registry of the locators used by the page objects and the keyword engine.
+ * <p>
+ * The locators are loaded from the {@code locators.properties} resource, templates are resolved with named
+ * parameters, e.g. {@code Locators.get("pagination.page", "n", "2")}, and every resolved {@link By} is cached.
+ * When {@code LocatorCssTranslation=true} the simple XPaths, made of tag and attribute equality steps, are
+ * translated to the equivalent CSS selectors which the browsers match faster.
+ * The registry also remembers the name of every locator so the lookup latencies are tagged with it.
+ */
+public class Locators {
+    /**
+     * The resource containing the locators.
+     */
+    private static final String RESOURCE = "locators.properties";
+    /**
+     * One XPath step made of a tag and attribute equality predicates.
+     */
+    private static final Pattern XPATH_STEP = Pattern.compile("(//|/)(\\*|[A-Za-z][\\w-]*)((?:\\[@[\\w-]+='[^']*'])*)");
+    /**
+     * One attribute equality predicate of an XPath step.
+     */
+    private static final Pattern XPATH_PREDICATE = Pattern.compile("\\[@([\\w-]+)='([^']*)']");
+    /**
+     * The raw locator specs keyed by name.
+     */
+    private static final Properties specs = load();
+    /**
+     * The resolved locators keyed by spec.
+     */
+    private static final Map<String, By> cache = new ConcurrentHashMap<>();
+    /**
+     * The registry names of the resolved locators.
+     */
+    private static final Map<By, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Get a locator of the registry.
+     * @param name the locator name
+     * @param parameters the template parameters as alternating names and values
+     * @return the cached locator
+     */
+    public static By get(String name, String... parameters)
+    {
+        String spec = specs.getProperty(name);
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown locator " + name + " in " + RESOURCE);
+        }
+        StringBuilder displayName = new StringBuilder(name);
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            spec = spec.replace("{" + parameters[i] + "}", parameters[i + 1]);
+            displayName.append(i == 0 ? "{" : ",").append(parameters[i]).append('=').append(parameters[i + 1]);
+        }
+        if (parameters.length > 1) {
+            displayName.append('}');
+        }
+        return resolve(spec, displayName.toString());
+    }
+
+    /**
+     * Get a cached locator for a raw XPath, e.g. a locator of a keyword sheet.
+     * @param xpath the XPath
+     * @return the cached locator, named after the registry entry with the same XPath if any
+     */
+    public static By xpath(String xpath)
+    {
+        String spec = "xpath:" + xpath;
+        String name = xpath;
+        for (String key : specs.stringPropertyNames()) {
+            if (spec.equals(specs.getProperty(key))) {
+                name = key;
+                break;
+            }
+        }
+        return resolve(spec, name);
+    }
+
+    /**
+     * Check if a locator is defined in the registry.
+     * @param name the locator name
+     * @return true if the locator exists
+     */
+    public static boolean contains(String name)
+    {
+        return specs.containsKey(name);
+    }
+
+    /**
+     * Get the registry name of a locator, used to tag the lookup latencies.
+     * @param locator the locator
+     * @return the registry name or the locator description
+     */
+    public static String nameOf(By locator)
+    {
+        String name = names.get(locator);
+        return name == null ? String.valueOf(locator) : name;
+    }
+
+    /**
+     * Resolve a spec to a cached locator.
+     */
+    private static By resolve(String spec, String name)
+    {
+        By locator = cache.get(spec);
+        if (locator == null) {
+            locator = cache.computeIfAbsent(spec, Locators::toBy);
+            names.putIfAbsent(locator, name);
+        }
+        return locator;
+    }
+
+    /**
+     * Build the locator of a spec.
+     */
+    private static By toBy(String spec)
+    {
+        int separator = spec.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid locator " + spec + ", expected <type>:<selector>");
+        }
+        String type = spec.substring(0, separator).trim();
+        String value = spec.substring(separator + 1).trim();
+        switch (type) {
+            case "xpath":
+                String css = TestConfig.get().getBoolean("LocatorCssTranslation", false) ? toCss(value) : null;
+                return css != null ? By.cssSelector(css) : By.xpath(value);
+            case "css":
+                return By.cssSelector(value);
+            case "id":
+                return By.id(value);
+            case "name":
+                return By.name(value);
+            default:
+                throw new IllegalArgumentException("Unsupported locator type " + type + " in " + spec);
+        }
+    }
+
+    /**
+     * Translate a simple XPath to CSS, e.g. {@code //div[@class='b_tpcn']/a} to {@code div[class='b_tpcn'] > a}.
+     * @param xpath the XPath
+     * @return the CSS selector, or null if the XPath uses features CSS can not express
+     */
+    static String toCss(String xpath)
+    {
+        Matcher step = XPATH_STEP.matcher(xpath);
+        StringBuilder css = new StringBuilder();
+        int position = 0;
+        while (step.find() && step.start() == position) {
+            String axis = step.group(1);
+            if (position == 0 && axis.equals("/")) {
+                return null;
+            }
+            if (position > 0) {
+                css.append(axis.equals("//") ? " " : " > ");
+            }
+            String tag = step.group(2);
+            String predicates = step.group(3);
+            if (!tag.equals("*") || predicates.isEmpty()) {
+                css.append(tag);
+            }
+            Matcher predicate = XPATH_PREDICATE.matcher(predicates);
+            while (predicate.find()) {
+                css.append('[').append(predicate.group(1)).append("='").append(predicate.group(2)).append("']");
+            }
+            position = step.end();
+        }
+        return position == xpath.length() && position > 0 ? css.toString() : null;
+    }
+
+    /**
+     * Load the locators resource.
+     */
+    private static Properties load()
+    {
+        Properties properties = new Properties();
+        try (InputStream stream = Locators.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (stream == null) {
+                throw new IllegalStateException(RESOURCE + " not found on the class path");
+            }
+            properties.load(stream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return properties;
+    }
+}
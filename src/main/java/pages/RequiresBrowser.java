@@ -0,0 +1,21 @@
+package pages;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a page object method which depends on a rendered page, e.g. the layout or the scroll position.
+ * The method does nothing on an in-process session, see {@link base.InProcessDriver}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RequiresBrowser {
+    /**
+     * @return why the method needs a real browser
+     */
+    String value() default "";
+}
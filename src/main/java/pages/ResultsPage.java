@@ -1,11 +1,16 @@
 package pages;
 
+import base.InProcessDriver;
 import io.qameta.allure.Step;
+import metrics.NavigationTiming;
+import metrics.NetworkCapture;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import utils.Waits;
 
+import java.util.Collections;
 import java.util.List;
 
 
@@ -29,7 +34,7 @@ public class ResultsPage {
     /**
      * Locator for the returned search results on the page.
      */
-    By returnedResultsBy = By.xpath("//div[@class='b_tpcn']/a");
+    By returnedResultsBy = Locators.get("results.items");
 
     /**
      * Gets the number of results shown on the page.
@@ -38,28 +43,83 @@ public class ResultsPage {
     @Step("Get the number of results shown on the page")
     public int getResultsCount()
     {
-        List<WebElement> pageResults = driver.findElements(returnedResultsBy);
-        System.out.println("the list of results size is " + pageResults.size() + ".");
-        return pageResults.size();
+        int resultsCount = DomQuery.count(driver, returnedResultsBy);
+        System.out.println("the list of results size is " + resultsCount + ".");
+        return resultsCount;
     }
 
     /**
-     * Navigates to the specified page number using pagination.
+     * Gets the texts and links of the results shown on the page in a single round trip.
+     * @return the count, the texts and the href attributes of the results
+     */
+    @Step("Get the results shown on the page")
+    public DomQuery.Result getResults()
+    {
+        return new DomQuery(driver).add(returnedResultsBy, true, "href").run().get(0);
+    }
+
+    /**
+     * Waits until the results are shown and the page has stopped changing.
+     * @return the number of search results
+     */
+    @Step("Wait for the results to be shown")
+    public int waitForResults()
+    {
+        int resultsCount = DomQuery.awaitCount(driver, returnedResultsBy, Waits.defaultTimeout());
+        Waits.domQuiet(driver);
+        return resultsCount;
+    }
+
+    /**
+     * Navigates to the specified page number using pagination and waits until the current results are replaced.
+     * The pagination link is reused from the {@link ElementCache} of the page.
      * @param pageNumber the page number to navigate to
      */
     @Step("Navigate to the next Page")
     public void pageNavigator(String pageNumber)
     {
-        By PaginationBarLocatorBy = By.xpath("//li[@class='b_pag']//nav//ul//a[@aria-label='Page "+pageNumber+"']");
-        driver.findElement(PaginationBarLocatorBy).click();
+        By PaginationBarLocatorBy = Locators.get("pagination.page", "n", pageNumber);
+        WebElement firstResult = driver.findElements(returnedResultsBy).stream().findFirst().orElse(null);
+        Waits.clickable(driver, ElementCache.of(driver).element(PaginationBarLocatorBy)).click();
+        if (firstResult != null) {
+            Waits.stale(driver, firstResult);
+        }
+        waitForResults();
+    }
+
+    /**
+     * Gets the timing of the last navigation of the results page and records it in the step metrics.
+     * @return the TTFB, DOMContentLoaded, load and long tasks of the page
+     */
+    @Step("Get the navigation timing of the results page")
+    public NavigationTiming lastNavigationTiming()
+    {
+        NavigationTiming timing = NavigationTiming.of(driver).record("ResultsPage");
+        System.out.println(timing);
+        return timing;
+    }
+
+    /**
+     * Gets the network responses of the results page, captured when {@code NetworkCapture=true}.
+     * @return the responses since the last navigation, empty if the session is not captured
+     */
+    public List<NetworkCapture.Response> networkResponses()
+    {
+        NetworkCapture capture = NetworkCapture.of(driver);
+        return capture == null ? Collections.emptyList() : capture.responses();
     }
 
     /**
-     * Scrolls to the end of the page using JavaScript.
+     * Scrolls to the end of the page using JavaScript, does nothing on an in-process session.
      */
+    @RequiresBrowser("scrolls the rendered page")
     @Step("Scroll to the end of the page")
     public void scrollToPageEnd()
     {
+        if (InProcessDriver.isInProcess(driver)) {
+            System.out.println("Skipping the scroll: it needs a real browser.");
+            return;
+        }
         JavascriptExecutor js = (JavascriptExecutor) driver;
         js.executeScript("window.scrollTo(0, document.body.scrollHeight)");
     }
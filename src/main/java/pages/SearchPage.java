@@ -3,6 +3,7 @@ package pages;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import utils.Waits;
 
 /**
  * Represents a page object for search functionality.
@@ -26,29 +27,29 @@ public class SearchPage {
     /**
      * Locates the search text field on the page.
      */
-    By searchTextFieldBy = By.xpath("//input[@id='sb_form_q']");
+    By searchTextFieldBy = Locators.get("search.textField");
 
     /**
      * Locates the search button on the page.
      */
-    By searchButtonBy = By.xpath("//*[@id='search_icon']");
+    By searchButtonBy = Locators.get("search.button");
     //Methods
 
     /**
-     * Sends a keyword to the search field.
+     * Sends a keyword to the search field, the field is reused from the {@link ElementCache} of the page.
      * @param keyWord the keyword to search for
      */
     @Step("Send key word to search field")
     public void sendDataToSearchField(String keyWord){
-        driver.findElement(searchTextFieldBy).sendKeys(keyWord);
+        Waits.visible(driver, ElementCache.of(driver).element(searchTextFieldBy)).sendKeys(keyWord);
     }
 
     /**
-     * Clicks the search button on the page.
+     * Clicks the search button on the page, the button is reused from the {@link ElementCache} of the page.
      */
     @Step("Click on search button")
     public void clickSearchButton()
     {
-        driver.findElement(searchButtonBy).click();
+        Waits.clickable(driver, ElementCache.of(driver).element(searchButtonBy)).click();
     }
 }
@@ -1,20 +1,17 @@
 package utils;
 import io.qameta.allure.internal.shadowed.jackson.databind.exc.InvalidFormatException;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
+import keywords.KeywordCompiler;
+import keywords.KeywordExecutor;
+import keywords.KeywordPlan;
+import keywords.KeywordSuiteRunner;
+import keywords.SheetResult;
+import keywords.StepPolicy;
+import metrics.DurationEstimates;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import org.testng.SkipException;
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * Provides methods for fetching test data from an Excel sheet and executing test steps based on provided data.
@@ -24,30 +21,6 @@ public class DataProvider {
      * The WebDriver instance used for test execution.
      */
     public WebDriver driver;
-    /**
-     * Represents the Excel sheet used for test data.
-     */
-    private static XSSFSheet ExcelWSheet;
-    /**
-     * Represents the Excel workbook containing test data.
-     */
-    private static XSSFWorkbook ExcelWBook;
-    /**
-     * Represents the workbook object for data access.
-     */
-    public static Workbook book;
-    /**
-     * Represents the sheet object for data access.
-     */
-    public static Sheet sheet;
-    /**
-     * The name of the locator used in the test.
-     */
-    String locatorName = null;
-    /**
-     * The value of the locator used in the test.
-     */
-    String locatorValue = null;
     /**
      * Constructs a new DataProvider object with the given WebDriver instance.
      * @param driver the WebDriver instance to use
@@ -58,170 +31,108 @@ public class DataProvider {
     }
     /**
      * Fetches test data from the specified Excel sheet based on the test case name.
+     * The sheet is streamed and indexed once per JVM by {@link ExcelDataIndex},
+     * and only the rows of the current shard are returned, see {@link Sharding}.
+     * The rows are also filtered by the test-impact selection of the test class, see {@link TestImpact},
+     * and ordered longest first from their recorded durations, see {@link DurationEstimates}.
      * @param path the path of the Excel file
      * @param testCaseName the name of the test case
+     * @param testClass the test class consuming the rows, the impact fingerprints and the durations are keyed by it
      * @return a 2D array of test data
      * @throws InvalidFormatException if the Excel format is invalid
      * @throws IOException if an I/O error occurs
      */
-    public  static Object[][] fetchData(String path,String testCaseName) throws InvalidFormatException, IOException {
-
-        Row row = null;
-        int cellCount = 0;
-        Object data[][] = null;
-        // Open the Excel file
-
-        FileInputStream ExcelFile = new FileInputStream(path);
-
-        // Access the required test data sheet
-
-        ExcelWBook = new XSSFWorkbook(ExcelFile);
-        ExcelWSheet = ExcelWBook.getSheet("TestCases");
-
-        int rowcount = ExcelWSheet.getLastRowNum();
-        ArrayList<Integer> tcRowsList = new ArrayList<Integer>();
-
-        for (int i = 1; i <= rowcount; i++) {
-            row = ExcelWSheet.getRow(i);
-            if (rowIsEmpty(row))
-                break;
-            if (row.getCell(0).getStringCellValue().equals(testCaseName)) {
-                // header row
-                if (row.getCell(1) == null)
-                    continue;
-                // Run mode is false
-                if (!(row.getCell(1).getBooleanCellValue()))
-                    continue;
-                cellCount = row.getLastCellNum();
-                tcRowsList.add(i);
-            }
-        }
-        if (tcRowsList.size() > 0) {
-            data = new Object[tcRowsList.size()][cellCount - 2];
-            for (int i = 0; i < tcRowsList.size(); i++) {
-
-                Row r = ExcelWSheet.getRow(tcRowsList.get(i));
-
-                for (int j = 2; j < cellCount; j++) {
-                    Cell c = r.getCell(j);
-                    try {
-
-                        if (c.getCellType() == CellType.STRING) {
-                            data[i][j - 2] = c.getStringCellValue();
-                        } else if (c.getCellType()== CellType.NUMERIC || c.getCellType() == CellType.FORMULA) {
-                            // Date value
-                            if (DateUtil.isCellDateFormatted(c)) {
-                                DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
-                                Date date = c.getDateCellValue();
-                                data[i][j - 2] = df.format(date);
-                            }
-                            // Numeric value
-                            else {
-                                String cellValue = String.valueOf(c.getNumericCellValue());
-                                if (cellValue.contains(".0")) {
-                                    data[i][j - 2] = cellValue.split("\\.")[0];
-                                }
-                            }
-                        }
-                        // boolean value
-                        else if (c.getCellType() == CellType.BOOLEAN) {
-                            data[i][j - 2] = c.getBooleanCellValue();
-                        }
-
-                    } catch (Exception e) {
-                        //ReportManager.log(e.getMessage());
-                    }
-                }
-            }
-        }
-        return data ;
-
-
+    public static Object[][] fetchData(String path, String testCaseName, Class<?> testClass) throws InvalidFormatException, IOException {
+        Object[][] rows = Sharding.select(ExcelDataIndex.of(path).rows(testCaseName));
+        return schedule(testCaseName, testClass, TestImpact.selectRows(testCaseName, testClass, rows));
+    }
 
+    /**
+     * Fetches test data from the specified Excel sheet based on the test case name, for the calling class.
+     * @param path the path of the Excel file
+     * @param testCaseName the name of the test case
+     * @return a 2D array of test data
+     * @throws InvalidFormatException if the Excel format is invalid
+     * @throws IOException if an I/O error occurs
+     * @deprecated the calling class is the test class only when the data provider method calls this method itself,
+     * use {@link #fetchData(String, String, Class)}
+     */
+    @Deprecated
+    public  static Object[][] fetchData(String path,String testCaseName) throws InvalidFormatException, IOException {
+        return fetchData(path, testCaseName, StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass());
     }
+
     /**
-     * Checks if a row in Excel is empty.
-     * @param row the Excel row to check
-     * @return true if the row is empty, false otherwise
+     * Fetches test data lazily from the specified Excel sheet based on the test case name.
+     * The rows are materialized when the test-impact selection or the longest-first order needs them all.
+     * @param path the path of the Excel file
+     * @param testCaseName the name of the test case
+     * @param testClass the test class consuming the rows
+     * @return an iterator over the test data rows
+     * @throws IOException if an I/O error occurs
      */
-    private static boolean rowIsEmpty(Row row) {
-        if (row == null) {
-            return true;
+    public static Iterator<Object[]> fetchDataIterator(String path, String testCaseName, Class<?> testClass) throws IOException {
+        if (TestImpact.isEnabled() || DurationEstimates.isEnabled()) {
+            Object[][] rows = Sharding.select(ExcelDataIndex.of(path).rows(testCaseName));
+            return Arrays.asList(schedule(testCaseName, testClass, TestImpact.selectRows(testCaseName, testClass, rows)))
+                    .iterator();
         }
+        return Sharding.select(ExcelDataIndex.of(path).iterator(testCaseName));
+    }
 
-        for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
-            Cell cell = row.getCell(cellNum);
-
-            if (cell != null && cell.getCellType()!= CellType.BLANK )
-            {
-                return false;
-            }
+    /**
+     * Fetches test data lazily from the specified Excel sheet based on the test case name, for the calling class.
+     * @param path the path of the Excel file
+     * @param testCaseName the name of the test case
+     * @return an iterator over the test data rows
+     * @throws IOException if an I/O error occurs
+     * @deprecated use {@link #fetchDataIterator(String, String, Class)}
+     */
+    @Deprecated
+    public static Iterator<Object[]> fetchDataIterator(String path, String testCaseName) throws IOException {
+        return fetchDataIterator(path, testCaseName,
+                StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass());
+    }
 
+    /**
+     * Order the rows of a test case longest first when {@code ScheduleOrder=longest-first},
+     * the rows which failed last time first when {@code ScheduleFailedFirst=true}.
+     * @param testCaseName the name of the test case
+     * @param testClass the test class consuming the rows
+     * @param rows the selected rows
+     * @return the ordered rows
+     */
+    private static Object[][] schedule(String testCaseName, Class<?> testClass, Object[][] rows)
+    {
+        if (!DurationEstimates.isEnabled() || rows.length < 2) {
+            return rows;
         }
-        return true;
+        return DurationEstimates.longestFirst(Arrays.asList(rows), row -> DurationEstimates.row(testClass, row), null,
+                DurationEstimates.failedFirst() ? row -> TestImpact.rowFailedLastTime(testCaseName, testClass, row) : null)
+                .toArray(new Object[0][]);
     }
+
     /**
      * Starts test execution based on provided test steps and data from an Excel sheet.
+     * The sheet is compiled once into a cached plan by {@link KeywordCompiler}, the steps following a failed step
+     * are handled by the configured {@link StepPolicy} and every step is reported in the Allure and TestNG reports.
      * @param sheetName the name of the Excel sheet containing test steps
+     * @return the outcome of the sheet
+     * @throws SkipException if the sheet is unchanged since it last passed, see {@link TestImpact}
+     * @throws AssertionError if a step failed, listing the failed and skipped steps
      */
-    public void startExecution(String sheetName) {
-        FileInputStream file = null;
-        try {
-            file = new FileInputStream(Constants.filePath);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+    public SheetResult startExecution(String sheetName) {
+        KeywordPlan plan = KeywordCompiler.compile(Constants.filePath, sheetName);
+        if (!TestImpact.shouldRun(plan)) {
+            throw new SkipException("Sheet " + sheetName + " is unchanged since it last passed");
         }
-        try {
-            book = WorkbookFactory.create(file);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        SheetResult result = new KeywordExecutor(driver).execute(plan);
+        TestImpact.recordSheet(plan, result.isPassed());
+        KeywordSuiteRunner.reportSteps(result);
+        if (!result.isPassed()) {
+            throw new AssertionError(result.failureMessage());
         }
-
-        sheet = book.getSheet(sheetName);
-        int k = 0;
-        for (int i = 0; i < sheet.getLastRowNum(); i++) {
-            try{
-            String locatorColValue = sheet.getRow(i + 1).getCell(k + 1).toString().trim();
-            if (!locatorColValue.equalsIgnoreCase("NA")) {
-                locatorName = locatorColValue.split("=")[0].trim();//xpath
-                locatorValue = locatorColValue;//value of xpath
-            }
-            String action = sheet.getRow(i + 1).getCell(k + 2).toString().trim();
-            String value = sheet.getRow(i + 1).getCell(k + 3).toString().trim();
-
-            switch (action){
-                case "send data":
-                    driver.findElement(By.xpath(locatorValue)).sendKeys(value);
-                    break;
-
-                case "click":
-                    driver.findElement(By.xpath(locatorValue)).click();
-                    break;
-
-                case "scroll":
-                    JavascriptExecutor js = (JavascriptExecutor) driver;
-                    js.executeScript("window.scrollTo(0, document.body.scrollHeight)");
-                    break;
-
-                case "switch":
-                    driver.findElement(By.xpath(locatorValue)).click();
-                    break;
-
-                case "get results":
-                    List<WebElement> pageResults = driver.findElements(By.xpath(locatorValue));
-                    System.out.println("the list of results size is " + pageResults.size() + ".");
-                    break;
-
-                case "sleep":
-                    int sleepTime = Integer.parseInt(value);
-                    Thread.sleep(sleepTime);
-                    System.out.println("start sleep for: "+value+".");
-                    break;
-            }
-
-        } catch (Exception e) {
-            }
-    }
+        return result;
     }
 
 }
@@ -0,0 +1,368 @@
+package utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming index of the {@code TestCases} sheet of an Excel test data file.
+ * <p>
+ * The sheet is read once with the XSSF event API, without building the workbook DOM, and the enabled rows
+ * are grouped by test case name. The index is shared by all the test classes in the JVM and is rebuilt
+ * when the file modification time changes.
+ */
+public class ExcelDataIndex {
+    /**
+     * The name of the sheet containing the test data.
+     */
+    public static final String TEST_CASES_SHEET = "TestCases";
+    /**
+     * The indexes already built, keyed by the absolute path of the Excel file.
+     */
+    private static final Map<String, ExcelDataIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * The modification time of the file when the index was built.
+     */
+    private final long lastModified;
+    /**
+     * The data rows of every test case, without the test case name and run mode columns.
+     */
+    private final Map<String, List<Object[]>> rows;
+    /**
+     * The names of every test case of the sheet, including the test cases without enabled rows.
+     */
+    private final Set<String> testCases;
+
+    private ExcelDataIndex(long lastModified, Map<String, List<Object[]>> rows, Set<String> testCases)
+    {
+        this.lastModified = lastModified;
+        this.rows = rows;
+        this.testCases = testCases;
+    }
+
+    /**
+     * Get the index of an Excel file, building it on the first call or when the file has changed.
+     * @param path the path of the Excel file
+     * @return the index
+     * @throws IOException if the file can not be read
+     */
+    public static ExcelDataIndex of(String path) throws IOException
+    {
+        File file = new File(path).getAbsoluteFile();
+        long lastModified = file.lastModified();
+        ExcelDataIndex index = indexes.get(file.getPath());
+        if (index != null && index.lastModified == lastModified) {
+            return index;
+        }
+        try {
+            return indexes.compute(file.getPath(), (key, existing) -> {
+                if (existing != null && existing.lastModified == lastModified) {
+                    return existing;
+                }
+                try {
+                    return build(file, lastModified);
+                } catch (IOException e) {
+                    throw new IndexingException(e);
+                }
+            });
+        } catch (IndexingException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Drop every cached index.
+     */
+    public static void invalidateAll()
+    {
+        indexes.clear();
+    }
+
+    /**
+     * Get the enabled data rows of a test case.
+     * @param testCaseName the name of the test case
+     * @return a 2D array of test data, empty if the test case has no enabled rows
+     * @throws IllegalArgumentException if the sheet has no test case of this name
+     */
+    public Object[][] rows(String testCaseName)
+    {
+        List<Object[]> testCaseRows = testCaseRows(testCaseName);
+        Object[][] data = new Object[testCaseRows.size()][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = testCaseRows.get(i).clone();
+        }
+        return data;
+    }
+
+    /**
+     * Get the enabled data rows of a test case lazily.
+     * @param testCaseName the name of the test case
+     * @return an iterator over the rows of the test case
+     * @throws IllegalArgumentException if the sheet has no test case of this name
+     */
+    public Iterator<Object[]> iterator(String testCaseName)
+    {
+        Iterator<Object[]> source = testCaseRows(testCaseName).iterator();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext()
+            {
+                return source.hasNext();
+            }
+
+            @Override
+            public Object[] next()
+            {
+                return source.next().clone();
+            }
+        };
+    }
+
+    /**
+     * Get the enabled rows of a test case, a misspelled test case name is reported instead of running no row.
+     */
+    private List<Object[]> testCaseRows(String testCaseName)
+    {
+        if (!testCases.contains(testCaseName)) {
+            throw new IllegalArgumentException("Test case " + testCaseName + " not found in the " + TEST_CASES_SHEET + " sheet");
+        }
+        return rows.getOrDefault(testCaseName, Collections.emptyList());
+    }
+
+    /**
+     * Read the test cases sheet in a single pass.
+     * @param file the Excel file
+     * @param lastModified the modification time of the file
+     * @return the index
+     * @throws IOException if the file can not be read or parsed
+     */
+    private static ExcelDataIndex build(File file, long lastModified) throws IOException
+    {
+        RowCollector collector = new RowCollector();
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (!TEST_CASES_SHEET.equals(sheets.getSheetName())) {
+                        continue;
+                    }
+                    XMLReader parser = SAXHelper.newXMLReader();
+                    parser.setContentHandler(new TypedSheetHandler(styles, strings, collector));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to read the test data from " + file, e);
+        } finally {
+            if (pkg != null) {
+                // the package is opened read only, revert releases it without trying to save it
+                pkg.revert();
+            }
+        }
+        return new ExcelDataIndex(lastModified, collector.result(), collector.testCases());
+    }
+
+    /**
+     * Collects the enabled rows of every test case while the sheet is streamed.
+     * <p>
+     * The rules are the same as the legacy DOM reader: the header row is skipped, the reading stops at the
+     * first empty row, rows without a run mode are test case headers and rows with a false run mode are skipped.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Map<String, List<Object[]>> rows = new HashMap<>();
+        private final Set<String> testCases = new HashSet<>();
+        private final Map<String, Integer> widths = new HashMap<>();
+        private final Map<Integer, Object> cells = new HashMap<>();
+        private int previousRow = 0;
+        private int lastColumn = -1;
+        private int maxColumn = -1;
+        private boolean finished = false;
+        /**
+         * Whether the cell being reported is a boolean cell, set by the {@link TypedSheetHandler}.
+         */
+        private boolean booleanCell = false;
+
+        @Override
+        public void startRow(int rowNum)
+        {
+            cells.clear();
+            lastColumn = -1;
+            maxColumn = -1;
+            if (rowNum > 1 && rowNum != previousRow + 1) {
+                // a missing row is an empty row
+                finished = true;
+            }
+            previousRow = rowNum;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment)
+        {
+            int column = cellReference == null ? lastColumn + 1 : new CellReference(cellReference).getCol();
+            lastColumn = column;
+            if (finished || formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+            cells.put(column, toValue(formattedValue, booleanCell));
+            maxColumn = Math.max(maxColumn, column);
+        }
+
+        @Override
+        public void endRow(int rowNum)
+        {
+            if (finished || rowNum == 0) {
+                return;
+            }
+            if (cells.isEmpty()) {
+                finished = true;
+                return;
+            }
+            Object name = cells.get(0);
+            Object runMode = cells.get(1);
+            if (name != null) {
+                testCases.add(name.toString());
+            }
+            if (name == null || runMode == null || !Boolean.TRUE.equals(runMode)) {
+                return;
+            }
+            Object[] data = new Object[maxColumn + 1];
+            for (Map.Entry<Integer, Object> cell : cells.entrySet()) {
+                data[cell.getKey()] = cell.getValue();
+            }
+            rows.computeIfAbsent(name.toString(), key -> new ArrayList<>()).add(data);
+            widths.put(name.toString(), maxColumn + 1);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName)
+        {
+        }
+
+        /**
+         * Build the index, every row of a test case has the width of its last row minus the two first columns.
+         * @return the rows of every test case
+         */
+        Map<String, List<Object[]>> result()
+        {
+            Map<String, List<Object[]>> result = new HashMap<>();
+            for (Map.Entry<String, List<Object[]>> testCase : rows.entrySet()) {
+                int width = Math.max(0, widths.get(testCase.getKey()) - 2);
+                List<Object[]> trimmed = new ArrayList<>(testCase.getValue().size());
+                for (Object[] row : testCase.getValue()) {
+                    Object[] data = new Object[width];
+                    System.arraycopy(row, 2, data, 0, Math.max(0, Math.min(width, row.length - 2)));
+                    trimmed.add(data);
+                }
+                result.put(testCase.getKey(), Collections.unmodifiableList(trimmed));
+            }
+            return result;
+        }
+
+        /**
+         * @return the names of every test case of the sheet
+         */
+        Set<String> testCases()
+        {
+            return Collections.unmodifiableSet(testCases);
+        }
+
+        /**
+         * Convert a formatted cell value to the value handed to the tests, as the legacy reader a text cell
+         * holding TRUE stays a string.
+         * @param formattedValue the formatted value
+         * @param booleanCell whether the cell is a boolean cell
+         * @return a Boolean for boolean cells, the formatted string otherwise
+         */
+        private static Object toValue(String formattedValue, boolean booleanCell)
+        {
+            if (booleanCell) {
+                return Boolean.valueOf(formattedValue.equals("TRUE"));
+            }
+            return formattedValue;
+        }
+    }
+
+    /**
+     * Sheet handler telling the collector the type of every cell before its formatted value is reported,
+     * the formatted value of a boolean cell can not be told apart from a text cell holding TRUE or FALSE.
+     */
+    private static class TypedSheetHandler extends XSSFSheetXMLHandler {
+        private final RowCollector collector;
+
+        TypedSheetHandler(StylesTable styles, ReadOnlySharedStringsTable strings, RowCollector collector)
+        {
+            super(styles, strings, collector, new TestDataFormatter(), false);
+            this.collector = collector;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException
+        {
+            if ("c".equals(localName)) {
+                collector.booleanCell = "b".equals(attributes.getValue("t"));
+            }
+            super.startElement(uri, localName, qName, attributes);
+        }
+    }
+
+    /**
+     * Formats the numeric cells the same way as the legacy reader: dates as MM/dd/yyyy and whole numbers without decimals.
+     */
+    private static class TestDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing)
+        {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return new SimpleDateFormat("MM/dd/yyyy").format(DateUtil.getJavaDate(value, use1904Windowing));
+            }
+            if (value == Math.rint(value) && !Double.isInfinite(value)) {
+                return String.valueOf((long) value);
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+
+    /**
+     * Carries an I/O failure out of the cache computation.
+     */
+    private static class IndexingException extends RuntimeException {
+        IndexingException(IOException cause)
+        {
+            super(cause);
+        }
+    }
+}
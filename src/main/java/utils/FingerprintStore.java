@@ -0,0 +1,117 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file-backed index of the last outcome of every test input, keyed by the fingerprint of the input.
+ * <p>
+ * The index is a properties file mapping a fingerprint to {@code PASSED} or {@code FAILED} followed by the time
+ * of the run which recorded it. It is loaded once and written back atomically at the end of the run.
+ */
+public final class FingerprintStore {
+    /**
+     * The last outcome of an input.
+     */
+    public enum Outcome {
+        PASSED,
+        FAILED
+    }
+
+    /**
+     * The index file.
+     */
+    private final Path file;
+    /**
+     * The recorded outcomes with the time they were recorded, keyed by fingerprint.
+     */
+    private final Map<String, String> outcomes = new ConcurrentHashMap<>();
+
+    private FingerprintStore(Path file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Load an index file, a missing file is an empty index.
+     * @param file the index file
+     * @return the store
+     */
+    public static FingerprintStore open(Path file)
+    {
+        FingerprintStore store = new FingerprintStore(file);
+        if (Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            } catch (IOException e) {
+                System.out.println("Ignoring the unreadable fingerprint store " + file + ": " + e.getMessage());
+            }
+            for (String fingerprint : properties.stringPropertyNames()) {
+                store.outcomes.put(fingerprint, properties.getProperty(fingerprint));
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Get the last outcome of an input.
+     * @param fingerprint the fingerprint of the input
+     * @return the outcome or null if the input never ran with this fingerprint
+     */
+    public Outcome get(String fingerprint)
+    {
+        String value = outcomes.get(fingerprint);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Outcome.valueOf(value.split(" ", 2)[0]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Record the outcome of an input.
+     * @param fingerprint the fingerprint of the input
+     * @param passed true if the input passed
+     */
+    public void put(String fingerprint, boolean passed)
+    {
+        outcomes.put(fingerprint, (passed ? Outcome.PASSED : Outcome.FAILED) + " " + System.currentTimeMillis());
+    }
+
+    /**
+     * @return the number of recorded inputs
+     */
+    public int size()
+    {
+        return outcomes.size();
+    }
+
+    /**
+     * Write the index file, the file is replaced atomically.
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void save() throws IOException
+    {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        Properties properties = new Properties();
+        properties.putAll(new TreeMap<>(outcomes));
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            properties.store(stream, "last outcome of every test input keyed by fingerprint");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
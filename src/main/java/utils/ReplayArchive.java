@@ -0,0 +1,251 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An on-disk archive of recorded HTTP responses keyed by request method and URL.
+ * <p>
+ * The archive is a single binary file: a header then, for every response, its key, status code, headers and body.
+ * An opened archive maps the file in memory and the bodies are read-only slices of the mapping, so opening a large
+ * archive does not copy it to the heap. The query parameters which change on every request, e.g. a client id,
+ * can be ignored in the keys so the recorded responses still match on replay.
+ */
+public final class ReplayArchive {
+    /**
+     * The first bytes of an archive file: RPLY.
+     */
+    private static final int MAGIC = 0x52504c59;
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The responses keyed by method and normalized URL.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * The query parameters ignored in the keys.
+     */
+    private final Set<String> ignoredParameters;
+
+    private ReplayArchive(Set<String> ignoredParameters)
+    {
+        this.ignoredParameters = Collections.unmodifiableSet(new HashSet<>(ignoredParameters));
+    }
+
+    /**
+     * Create an empty archive to record into.
+     * @param ignoredParameters the query parameters ignored in the keys
+     * @return the archive
+     */
+    public static ReplayArchive create(Set<String> ignoredParameters)
+    {
+        return new ReplayArchive(ignoredParameters);
+    }
+
+    /**
+     * Open an archive file by mapping it in memory.
+     * @param path the archive file
+     * @param ignoredParameters the query parameters ignored in the keys
+     * @return the archive
+     * @throws IOException if the file can not be read or is not an archive
+     */
+    public static ReplayArchive open(Path path, Set<String> ignoredParameters) throws IOException
+    {
+        ReplayArchive archive = new ReplayArchive(ignoredParameters);
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.remaining() < 12 || mapped.getInt() != MAGIC) {
+            throw new IOException(path + " is not a replay archive");
+        }
+        int version = mapped.getInt();
+        if (version != VERSION) {
+            throw new IOException(path + " has the unsupported archive version " + version);
+        }
+        int count = mapped.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(mapped);
+            int status = mapped.getInt();
+            int headerCount = mapped.getInt();
+            List<String[]> headers = new ArrayList<>(headerCount);
+            for (int h = 0; h < headerCount; h++) {
+                headers.add(new String[]{readString(mapped), readString(mapped)});
+            }
+            int length = mapped.getInt();
+            ByteBuffer body = mapped.slice();
+            body.limit(length);
+            mapped.position(mapped.position() + length);
+            archive.entries.put(key, new Entry(status, headers, body.asReadOnlyBuffer()));
+        }
+        return archive;
+    }
+
+    /**
+     * Get a recorded response.
+     * @param method the request method
+     * @param url the request URL
+     * @return the response or null if it was not recorded
+     */
+    public Entry get(String method, String url)
+    {
+        return entries.get(key(method, url));
+    }
+
+    /**
+     * Record a response, a response recorded before for the same key is replaced.
+     * @param method the request method
+     * @param url the request URL
+     * @param status the status code
+     * @param headers the response headers as name and value pairs
+     * @param body the decoded body
+     */
+    public void put(String method, String url, int status, List<String[]> headers, byte[] body)
+    {
+        entries.put(key(method, url), new Entry(status, new ArrayList<>(headers), ByteBuffer.wrap(body).asReadOnlyBuffer()));
+    }
+
+    /**
+     * @return the number of recorded responses
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Write the archive, the file is replaced atomically.
+     * @param path the archive file
+     * @throws IOException if the file can not be written
+     */
+    public void save(Path path) throws IOException
+    {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> recorded : snapshot) {
+                Entry entry = recorded.getValue();
+                writeString(out, recorded.getKey());
+                out.writeInt(entry.status);
+                out.writeInt(entry.headers.size());
+                for (String[] header : entry.headers) {
+                    writeString(out, header[0]);
+                    writeString(out, header[1]);
+                }
+                byte[] body = entry.bodyBytes();
+                out.writeInt(body.length);
+                out.write(body);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Build the key of a request: the method and the URL without its fragment and ignored query parameters.
+     */
+    private String key(String method, String url)
+    {
+        String normalized = url;
+        int fragment = normalized.indexOf('#');
+        if (fragment >= 0) {
+            normalized = normalized.substring(0, fragment);
+        }
+        int query = normalized.indexOf('?');
+        if (query >= 0 && !ignoredParameters.isEmpty()) {
+            StringBuilder kept = new StringBuilder();
+            for (String parameter : normalized.substring(query + 1).split("&")) {
+                String name = parameter.split("=", 2)[0];
+                if (!parameter.isEmpty() && !ignoredParameters.contains(name)) {
+                    kept.append(kept.length() == 0 ? "" : "&").append(parameter);
+                }
+            }
+            normalized = normalized.substring(0, query) + (kept.length() == 0 ? "" : "?" + kept);
+        }
+        return method.toUpperCase() + " " + normalized;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A recorded response.
+     */
+    public static final class Entry {
+        /**
+         * The status code.
+         */
+        public final int status;
+        /**
+         * The headers as name and value pairs.
+         */
+        public final List<String[]> headers;
+        /**
+         * The read-only body, a slice of the mapped file for an opened archive.
+         */
+        private final ByteBuffer body;
+
+        Entry(int status, List<String[]> headers, ByteBuffer body)
+        {
+            this.status = status;
+            this.headers = Collections.unmodifiableList(headers);
+            this.body = body;
+        }
+
+        /**
+         * @return a copy of the body
+         */
+        public byte[] bodyBytes()
+        {
+            ByteBuffer view = body.duplicate();
+            byte[] bytes = new byte[view.remaining()];
+            view.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * @return the body encoded in base64
+         */
+        public String bodyBase64()
+        {
+            return Base64.getEncoder().encodeToString(bodyBytes());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package utils;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the suite in several local JVMs, one per shard, and merges their TestNG and Allure results.
+ * <p>
+ * Usage: {@code ShardCoordinator <shards> <test classes separated by commas>}.
+ * Every shard gets its own driver session, {@code shard.count} and {@code shard.index} system properties,
+ * and result directories under {@code target/shards/<index>}. The merged results are written to
+ * {@code target/allure-results} and {@code target/shards/testng-results.xml}.
+ */
+public class ShardCoordinator {
+    /**
+     * The root directory of the shard results.
+     */
+    private static final Path SHARDS_DIR = Paths.get("target", "shards");
+    /**
+     * The directory of the merged Allure results.
+     */
+    private static final Path ALLURE_RESULTS_DIR = Paths.get("target", "allure-results");
+
+    public static void main(String[] args) throws Exception
+    {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String testClasses = args.length > 1 ? args[1] : "testcases.SearchPageTests,testcases.KeyWordDrivenTests";
+        System.exit(run(shards, testClasses));
+    }
+
+    /**
+     * Launch the shards, wait for them and merge their results.
+     * @param shards the number of shards
+     * @param testClasses the test classes separated by commas
+     * @return 0 if every shard passed, 1 otherwise
+     * @throws Exception if a shard can not be launched or the results can not be merged
+     */
+    public static int run(int shards, String testClasses) throws Exception
+    {
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            processes.add(launch(i, shards, testClasses));
+        }
+        int exitCode = 0;
+        for (int i = 0; i < shards; i++) {
+            int shardExitCode = processes.get(i).waitFor();
+            System.out.println("Shard " + i + " finished with exit code " + shardExitCode + ".");
+            if (shardExitCode != 0) {
+                exitCode = 1;
+            }
+        }
+        mergeAllureResults(shards);
+        mergeTestNGResults(shards);
+        return exitCode;
+    }
+
+    /**
+     * Launch one shard in a forked JVM using the class path and JVM arguments of the coordinator.
+     */
+    private static Process launch(int index, int shards, String testClasses) throws IOException
+    {
+        Path shardDir = SHARDS_DIR.resolve(String.valueOf(index));
+        Files.createDirectories(shardDir);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(forwardedArguments());
+        command.add("-Dshard.count=" + shards);
+        command.add("-Dshard.index=" + index);
+        command.add("-Dallure.results.directory=" + shardDir.resolve("allure-results"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(shardDir.resolve("testng").toString());
+        command.add("-testclass");
+        command.add(testClasses);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(shardDir.resolve("output.log").toFile())
+                .start();
+    }
+
+    /**
+     * Get the JVM arguments of the coordinator forwarded to the shards, without the native agents and the debug
+     * options: every shard would listen on the same debug port. The Java agents such as the AspectJ weaver are kept.
+     */
+    private static List<String> forwardedArguments()
+    {
+        List<String> arguments = new ArrayList<>();
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-agentlib:") || argument.startsWith("-agentpath:")
+                    || argument.startsWith("-Xrunjdwp") || argument.equals("-Xdebug")) {
+                continue;
+            }
+            arguments.add(argument);
+        }
+        return arguments;
+    }
+
+    /**
+     * Copy the Allure results of every shard to one directory, the result file names are unique UUIDs.
+     */
+    private static void mergeAllureResults(int shards) throws IOException
+    {
+        Files.createDirectories(ALLURE_RESULTS_DIR);
+        for (int i = 0; i < shards; i++) {
+            Path results = SHARDS_DIR.resolve(String.valueOf(i)).resolve("allure-results");
+            if (!Files.isDirectory(results)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(results)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, ALLURE_RESULTS_DIR.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge the testng-results.xml files of every shard, summing the counters and keeping every suite.
+     */
+    private static void mergeTestNGResults(int shards) throws Exception
+    {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document merged = builder.newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        String[] counters = {"ignored", "total", "passed", "failed", "skipped"};
+        long[] totals = new long[counters.length];
+        for (int i = 0; i < shards; i++) {
+            File results = SHARDS_DIR.resolve(String.valueOf(i)).resolve("testng").resolve("testng-results.xml").toFile();
+            if (!results.isFile()) {
+                System.out.println("Shard " + i + " did not produce " + results + ".");
+                continue;
+            }
+            Element shardRoot = builder.parse(results).getDocumentElement();
+            for (int c = 0; c < counters.length; c++) {
+                String value = shardRoot.getAttribute(counters[c]);
+                totals[c] += value.isEmpty() ? 0 : Long.parseLong(value);
+            }
+            NodeList suites = shardRoot.getElementsByTagName("suite");
+            for (int s = 0; s < suites.getLength(); s++) {
+                Node suite = suites.item(s);
+                if (suite.getParentNode() == shardRoot) {
+                    root.appendChild(merged.importNode(suite, true));
+                }
+            }
+        }
+        for (int c = 0; c < counters.length; c++) {
+            root.setAttribute(counters[c], String.valueOf(totals[c]));
+        }
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(merged), new StreamResult(SHARDS_DIR.resolve("testng-results.xml").toFile()));
+        System.out.println("Merged results: total=" + totals[1] + " passed=" + totals[2] + " failed=" + totals[3] + " skipped=" + totals[4] + ".");
+    }
+}
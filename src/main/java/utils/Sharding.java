@@ -0,0 +1,124 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Deterministic partitioning of the test methods and the data provider rows across shards.
+ * <p>
+ * The shard is selected with the {@code shard.count} and {@code shard.index} system properties,
+ * e.g. {@code -Dshard.count=4 -Dshard.index=0}. Without them every row and method belongs to the single shard.
+ */
+public class Sharding {
+    /**
+     * @return the number of shards
+     */
+    public static int count()
+    {
+        return Math.max(1, TestConfig.get().getInt("shard.count", 1));
+    }
+
+    /**
+     * @return the index of the current shard, from 0 to count - 1
+     * @throws IllegalArgumentException if the index is outside of the shards, the shard would select nothing
+     */
+    public static int index()
+    {
+        int index = TestConfig.get().getInt("shard.index", 0);
+        if (index < 0 || index >= count()) {
+            throw new IllegalArgumentException("shard.index " + index + " is not between 0 and shard.count - 1 = " + (count() - 1));
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the run is split across several shards
+     */
+    public static boolean isEnabled()
+    {
+        return count() > 1;
+    }
+
+    /**
+     * Check if a named item, such as a test method, belongs to the current shard.
+     * @param name the stable name of the item
+     * @return true if the item runs in the current shard
+     */
+    public static boolean owns(String name)
+    {
+        return Math.floorMod(name.hashCode(), count()) == index();
+    }
+
+    /**
+     * Keep the data rows of the current shard, rows are dealt round robin so every shard gets the same number of rows.
+     * @param rows the data rows
+     * @return the rows of the current shard
+     */
+    public static Object[][] select(Object[][] rows)
+    {
+        if (rows == null || !isEnabled()) {
+            return rows;
+        }
+        List<Object[]> selected = new ArrayList<>();
+        for (int i = index(); i < rows.length; i += count()) {
+            selected.add(rows[i]);
+        }
+        return selected.toArray(new Object[0][]);
+    }
+
+    /**
+     * Keep the data rows of the current shard lazily.
+     * @param rows the data rows
+     * @return the rows of the current shard
+     */
+    public static Iterator<Object[]> select(Iterator<Object[]> rows)
+    {
+        if (!isEnabled()) {
+            return rows;
+        }
+        int count = count();
+        int index = index();
+        return new Iterator<Object[]>() {
+            private int position = 0;
+            private boolean hasNext;
+            private Object[] next;
+
+            {
+                advance();
+            }
+
+            private void advance()
+            {
+                hasNext = false;
+                next = null;
+                while (rows.hasNext()) {
+                    Object[] row = rows.next();
+                    if (position++ % count == index) {
+                        hasNext = true;
+                        next = row;
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return hasNext;
+            }
+
+            @Override
+            public Object[] next()
+            {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                Object[] current = next;
+                advance();
+                return current;
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Serves the files of a directory on the loopback interface, used to run the pages offline.
+ * <p>
+ * The server listens on a free port and only answers GET requests for the files inside its root directory,
+ * a request for a directory serves its {@code index.html}.
+ */
+public class StaticFileServer implements AutoCloseable {
+    /**
+     * The content types of the served file extensions.
+     */
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json; charset=utf-8");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+    }
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+    /**
+     * The served directory.
+     */
+    private final Path root;
+
+    private StaticFileServer(HttpServer server, Path root)
+    {
+        this.server = server;
+        this.root = root;
+    }
+
+    /**
+     * Start serving a directory on a free loopback port.
+     * @param root the served directory
+     * @return the started server
+     * @throws IOException if the server can not be bound
+     */
+    public static StaticFileServer start(Path root) throws IOException
+    {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        StaticFileServer files = new StaticFileServer(server, root.toAbsolutePath().normalize());
+        server.createContext("/", files::serve);
+        server.start();
+        return files;
+    }
+
+    /**
+     * Get the URL of a served file.
+     * @param path the path of the file relative to the root directory
+     * @return the URL
+     */
+    public String url(String path)
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + path.replaceFirst("^/+", "");
+    }
+
+    /**
+     * Stop the server.
+     */
+    @Override
+    public void close()
+    {
+        server.stop(0);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException
+    {
+        try {
+            Path file = root.resolve(exchange.getRequestURI().getPath().replaceFirst("^/+", "")).normalize();
+            if (Files.isDirectory(file)) {
+                file = file.resolve("index.html");
+            }
+            if (!exchange.getRequestMethod().equals("GET") || !file.startsWith(root) || !Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String name = file.getFileName().toString();
+            String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            byte[] body = Files.readAllBytes(file);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
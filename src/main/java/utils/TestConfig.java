@@ -0,0 +1,256 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable snapshot of the test configuration.
+ * <p>
+ * The snapshot is loaded once from the properties file and the following overrides are layered on top of it:
+ * <ul>
+ *     <li>Environment variables using the upper snake case of the key, e.g. {@code BROWSER_TYPE}
+ *     <li>System properties using the key itself, e.g. {@code -DBrowserType=Chrome}
+ * </ul>
+ * When {@code ConfigWatch=true} the properties file is watched and the snapshot is swapped atomically on change.
+ */
+public final class TestConfig {
+    /**
+     * The current configuration snapshot.
+     */
+    private static final AtomicReference<TestConfig> snapshot = new AtomicReference<>(load(path()));
+    /**
+     * The thread watching the properties file, null if the watch is not started.
+     */
+    private static Thread watcher;
+
+    static {
+        if (snapshot.get().getBoolean("ConfigWatch", false)) {
+            watch(path());
+        }
+    }
+
+    /**
+     * The resolved configuration values.
+     */
+    private final Map<String, String> values;
+
+    private TestConfig(Map<String, String> values)
+    {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Get the current configuration snapshot.
+     * @return the snapshot
+     */
+    public static TestConfig get()
+    {
+        return snapshot.get();
+    }
+
+    /**
+     * Get the path of the properties file, {@code -Dconfig.path} overrides the default one.
+     * @return the path of the properties file
+     */
+    public static String path()
+    {
+        return System.getProperty("config.path", Constants.configPath);
+    }
+
+    /**
+     * Load a configuration snapshot from a properties file and layer the overrides on top of it.
+     * @param path the path of the properties file
+     * @return the snapshot
+     */
+    public static TestConfig load(String path)
+    {
+        Properties file = new Properties();
+        try (InputStream stream = Files.newInputStream(Paths.get(path))) {
+            file.load(stream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String key : file.stringPropertyNames()) {
+            values.put(key, file.getProperty(key).trim());
+            String env = System.getenv(toEnvironmentName(key));
+            if (env != null) {
+                values.put(key, env.trim());
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            values.put(key, System.getProperty(key).trim());
+        }
+        return new TestConfig(values);
+    }
+
+    /**
+     * Reload the snapshot from the properties file.
+     */
+    public static void reload()
+    {
+        snapshot.set(load(path()));
+        System.out.println("Configuration reloaded from " + path() + ".");
+    }
+
+    /**
+     * Start a daemon thread which reloads the snapshot when the properties file changes.
+     * @param path the path of the properties file
+     */
+    public static synchronized void watch(String path)
+    {
+        if (watcher != null) {
+            return;
+        }
+        Path file = Paths.get(path).toAbsolutePath();
+        watcher = new Thread(() -> {
+            try (WatchService service = file.getFileSystem().newWatchService()) {
+                file.getParent().register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+                while (true) {
+                    WatchKey key = service.take();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (file.getFileName().equals(event.context())) {
+                            try {
+                                snapshot.set(load(path));
+                                System.out.println("Configuration reloaded from " + path + ".");
+                            } catch (RuntimeException e) {
+                                System.out.println("Keeping the previous configuration, reload failed: " + e.getMessage());
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (IOException | ClosedWatchServiceException e) {
+                System.out.println("Configuration watch stopped: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Convert a configuration key to its environment variable name, e.g. BrowserType to BROWSER_TYPE.
+     * @param key the configuration key
+     * @return the environment variable name
+     */
+    private static String toEnvironmentName(String key)
+    {
+        return key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("[^A-Za-z0-9]", "_").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Get a configuration value.
+     * @param key the configuration key
+     * @return the value or null if the key is not configured
+     */
+    public String get(String key)
+    {
+        return values.get(key);
+    }
+
+    /**
+     * Get a configuration value.
+     * @param key the configuration key
+     * @param defaultValue the value returned if the key is not configured
+     * @return the value
+     */
+    public String get(String key, String defaultValue)
+    {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * Get an integer configuration value.
+     * @param key the configuration key
+     * @param defaultValue the value returned if the key is not configured
+     * @return the value
+     */
+    public int getInt(String key, int defaultValue)
+    {
+        String value = get(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Get a boolean configuration value.
+     * @param key the configuration key
+     * @param defaultValue the value returned if the key is not configured
+     * @return the value
+     */
+    public boolean getBoolean(String key, boolean defaultValue)
+    {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * @return the browser type used for the execution
+     */
+    public String getBrowserType()
+    {
+        return get("BrowserType");
+    }
+
+    /**
+     * @return the run type, local or remote
+     */
+    public String getRunType()
+    {
+        return get("RunType", "local");
+    }
+
+    /**
+     * @return the URL opened before every test case
+     */
+    public String getTargetUrl()
+    {
+        return get("TargetURL");
+    }
+
+    /**
+     * @return the URL of the selenium grid hub
+     */
+    public String getHubUrl()
+    {
+        return get("hubURL");
+    }
+
+    /**
+     * @return the path of the Excel test data sheet
+     */
+    public String getExcelDataSheet()
+    {
+        return get("ExcelDataSheet");
+    }
+
+    /**
+     * Get the values as properties for the legacy callers, the returned object is a copy and changing it does not
+     * change the snapshot.
+     * @return a copy of the values
+     */
+    public Properties asProperties()
+    {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        return properties;
+    }
+}
@@ -0,0 +1,341 @@
+package utils;
+
+import keywords.KeywordPlan;
+import keywords.KeywordStep;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Test-impact selection of the data rows and the keyword sheets.
+ * <p>
+ * Every input gets a fingerprint: the hash of its content, of the locator registry and of the bytecode of the code
+ * it runs, i.e. the page objects and the test class for a data row, the page objects and the keyword engine for a
+ * keyword sheet. The last outcome of every fingerprint is kept in a {@link FingerprintStore}.
+ * {@code ImpactMode} in the configuration file selects the mode:
+ * <ul>
+ *     <li>off: every input runs and nothing is recorded, the default
+ *     <li>record: every input runs and its outcome is recorded
+ *     <li>changed-only: the inputs which passed with the same fingerprint are skipped, the failed inputs run first
+ * </ul>
+ */
+public class TestImpact {
+    /**
+     * The packages of the page objects.
+     */
+    private static final String[] PAGE_PACKAGES = {"pages"};
+    /**
+     * The packages run by the keyword sheets.
+     */
+    private static final String[] KEYWORD_PACKAGES = {"pages", "keywords"};
+
+    /**
+     * The store of the run, loaded on first use.
+     */
+    private static volatile FingerprintStore store;
+    /**
+     * The fingerprints of the selected data rows keyed by the row content, used to record their outcome.
+     */
+    private static final Map<List<Object>, Set<String>> rowFingerprints = new ConcurrentHashMap<>();
+    /**
+     * The bytecode fingerprints keyed by the hashed packages and class.
+     */
+    private static final Map<String, String> codeFingerprints = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TestImpact::save, "fingerprint-store-save"));
+    }
+
+    /**
+     * @return the mode selected by {@code ImpactMode}: off, record or changed-only
+     */
+    public static String mode()
+    {
+        return TestConfig.get().get("ImpactMode", "off").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true if the outcomes are recorded
+     */
+    public static boolean isEnabled()
+    {
+        return !mode().equals("off");
+    }
+
+    /**
+     * @return true if the unchanged inputs which passed are skipped
+     */
+    public static boolean isChangedOnly()
+    {
+        return mode().equals("changed-only");
+    }
+
+    /**
+     * Select the data rows to run, the failed rows first then the new or changed ones.
+     * @param testCaseName the name of the test case in the data sheet
+     * @param testClass the test class consuming the rows
+     * @param rows the rows of the test case
+     * @return the selected rows, every row when the changed-only mode is off
+     */
+    public static Object[][] selectRows(String testCaseName, Class<?> testClass, Object[][] rows)
+    {
+        if (!isEnabled()) {
+            return rows;
+        }
+        String code = codeFingerprint(testClass, PAGE_PACKAGES);
+        List<Object[]> failed = new ArrayList<>();
+        List<Object[]> changed = new ArrayList<>();
+        int skipped = 0;
+        for (Object[] row : rows) {
+            String fingerprint = hash("row", testCaseName, Arrays.deepToString(row), code);
+            rowFingerprints.computeIfAbsent(Arrays.asList(row), k -> ConcurrentHashMap.newKeySet()).add(fingerprint);
+            FingerprintStore.Outcome outcome = store().get(fingerprint);
+            if (!isChangedOnly() || outcome == null) {
+                changed.add(row);
+            } else if (outcome == FingerprintStore.Outcome.FAILED) {
+                failed.add(row);
+            } else {
+                skipped++;
+            }
+        }
+        if (isChangedOnly()) {
+            System.out.println("Impact selection of " + testCaseName + ": " + failed.size() + " failed, "
+                    + changed.size() + " new or changed, " + skipped + " unchanged rows skipped.");
+        }
+        failed.addAll(changed);
+        return failed.toArray(new Object[0][]);
+    }
+
+    /**
+     * Record the outcome of a data driven test.
+     * @param parameters the row the test ran with
+     * @param passed true if the test passed
+     */
+    public static void recordRow(Object[] parameters, boolean passed)
+    {
+        if (parameters == null || parameters.length == 0 || !isEnabled()) {
+            return;
+        }
+        Set<String> fingerprints = rowFingerprints.get(Arrays.asList(parameters));
+        if (fingerprints != null) {
+            for (String fingerprint : fingerprints) {
+                store().put(fingerprint, passed);
+            }
+        }
+    }
+
+    /**
+     * @param testCaseName the name of the test case in the data sheet
+     * @param testClass the test class consuming the rows
+     * @param row a row of the test case
+     * @return true if the row failed the last time it ran with the same fingerprint
+     */
+    public static boolean rowFailedLastTime(String testCaseName, Class<?> testClass, Object[] row)
+    {
+        return isEnabled() && store().get(hash("row", testCaseName, Arrays.deepToString(row),
+                codeFingerprint(testClass, PAGE_PACKAGES))) == FingerprintStore.Outcome.FAILED;
+    }
+
+    /**
+     * Record the outcome of a test method, whatever its data rows.
+     * @param qualifiedName the qualified name of the test method
+     * @param passed true if the test passed
+     */
+    public static void recordMethod(String qualifiedName, boolean passed)
+    {
+        if (isEnabled()) {
+            store().put(hash("method", qualifiedName), passed);
+        }
+    }
+
+    /**
+     * @param qualifiedName the qualified name of the test method
+     * @return true if the test method failed the last time it ran
+     */
+    public static boolean methodFailedLastTime(String qualifiedName)
+    {
+        return isEnabled() && store().get(hash("method", qualifiedName)) == FingerprintStore.Outcome.FAILED;
+    }
+
+    /**
+     * Get the fingerprint of a compiled keyword sheet.
+     * @param plan the compiled sheet
+     * @return the fingerprint
+     */
+    public static String sheetFingerprint(KeywordPlan plan)
+    {
+        StringBuilder content = new StringBuilder();
+        for (KeywordStep step : plan.getSteps()) {
+            content.append(step.getRow()).append('\u0000').append(step.getDescription()).append('\u0000')
+                    .append(step.getKeyword().getAction()).append('\u0000').append(step.getLocator()).append('\u0000')
+                    .append(step.getValue()).append('\u0000').append(step.getTimeoutMillis()).append('\n');
+        }
+        return hash("sheet", plan.getSheetName(), content.toString(), codeFingerprint(null, KEYWORD_PACKAGES));
+    }
+
+    /**
+     * Decide if a keyword sheet has to run.
+     * @param plan the compiled sheet
+     * @return false if the changed-only mode is on and the sheet passed with the same fingerprint
+     */
+    public static boolean shouldRun(KeywordPlan plan)
+    {
+        return !isChangedOnly() || store().get(sheetFingerprint(plan)) != FingerprintStore.Outcome.PASSED;
+    }
+
+    /**
+     * @param plan the compiled sheet
+     * @return true if the sheet failed the last time it ran with the same fingerprint
+     */
+    public static boolean failedLastTime(KeywordPlan plan)
+    {
+        return isEnabled() && store().get(sheetFingerprint(plan)) == FingerprintStore.Outcome.FAILED;
+    }
+
+    /**
+     * Record the outcome of a keyword sheet.
+     * @param plan the compiled sheet
+     * @param passed true if the sheet passed
+     */
+    public static void recordSheet(KeywordPlan plan, boolean passed)
+    {
+        if (isEnabled()) {
+            store().put(sheetFingerprint(plan), passed);
+        }
+    }
+
+    /**
+     * Write the recorded outcomes to the store file.
+     */
+    public static synchronized void save()
+    {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.save();
+        } catch (IOException e) {
+            System.out.println("Failed to save the fingerprint store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the store of the run, loaded from {@code ImpactStoreFile}
+     */
+    private static FingerprintStore store()
+    {
+        FingerprintStore current = store;
+        if (current == null) {
+            synchronized (TestImpact.class) {
+                current = store;
+                if (current == null) {
+                    current = FingerprintStore.open(Paths.get(
+                            TestConfig.get().get("ImpactStoreFile", "target/impact/fingerprints.properties")));
+                    store = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Hash the bytecode of a class, of the classes of some packages and the locator registry, computed once per JVM.
+     */
+    private static String codeFingerprint(Class<?> type, String... packages)
+    {
+        String key = (type == null ? "" : type.getName()) + "|" + String.join(",", packages);
+        return codeFingerprints.computeIfAbsent(key, k -> {
+            ClassLoader loader = TestImpact.class.getClassLoader();
+            Map<String, String> resources = new TreeMap<>();
+            if (type != null) {
+                String name = type.getName().replace('.', '/') + ".class";
+                resources.put(name, hashResource(loader, name));
+            }
+            for (String pkg : packages) {
+                for (String name : classResources(loader, pkg)) {
+                    resources.put(name, hashResource(loader, name));
+                }
+            }
+            resources.put("locators.properties", hashResource(loader, "locators.properties"));
+            return hash(resources.toString());
+        });
+    }
+
+    /**
+     * List the class files of a package, from a directory or a jar.
+     */
+    private static List<String> classResources(ClassLoader loader, String pkg)
+    {
+        List<String> names = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = loader.getResources(pkg);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if (root.getProtocol().equals("file")) {
+                    try (Stream<Path> files = Files.list(Paths.get(root.toURI()))) {
+                        files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".class"))
+                                .forEach(name -> names.add(pkg + "/" + name));
+                    }
+                } else if (root.getProtocol().equals("jar")) {
+                    JarFile jar = ((JarURLConnection) root.openConnection()).getJarFile();
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        String name = entry.getName();
+                        if (name.startsWith(pkg + "/") && name.endsWith(".class")
+                                && name.indexOf('/', pkg.length() + 1) < 0) {
+                            names.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            System.out.println("Failed to list the classes of " + pkg + ": " + e.getMessage());
+        }
+        return names;
+    }
+
+    private static String hashResource(ClassLoader loader, String name)
+    {
+        try (InputStream stream = loader.getResourceAsStream(name)) {
+            return stream == null ? "missing" : hash(stream.readAllBytes());
+        } catch (IOException e) {
+            return "unreadable";
+        }
+    }
+
+    private static String hash(String... parts)
+    {
+        return hash(String.join("\u0000", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(byte[] bytes)
+    {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
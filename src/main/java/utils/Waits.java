@@ -0,0 +1,210 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Condition based waits used by the page objects and the keyword executor instead of fixed sleeps and implicit waits.
+ * <p>
+ * The conditions are polled with an adaptive backoff: the first polls are close to each other so a fast page is
+ * detected early, then the interval doubles up to a maximum so a slow page is not flooded with commands.
+ * The following keys of the configuration file tune the waits:
+ * <ul>
+ *     <li>WaitTimeoutSeconds: the default timeout of a wait
+ *     <li>WaitPollMinMillis and WaitPollMaxMillis: the bounds of the polling interval
+ *     <li>DomQuietMillis: how long the DOM must stay unchanged to be considered settled
+ * </ul>
+ */
+public class Waits {
+    /**
+     * Marks the DOM with a mutation observer and reports whether it has been quiet for the requested time.
+     */
+    private static final String DOM_QUIET_SCRIPT =
+            "if (document.readyState !== 'complete') { return false; }"
+            + "if (!window.__waitsObserver) {"
+            + "  window.__waitsLastMutation = Date.now();"
+            + "  window.__waitsObserver = new MutationObserver(function () { window.__waitsLastMutation = Date.now(); });"
+            + "  window.__waitsObserver.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "  return false;"
+            + "}"
+            + "return Date.now() - window.__waitsLastMutation >= arguments[0];";
+
+    /**
+     * @return the default timeout of a wait
+     */
+    public static Duration defaultTimeout()
+    {
+        return Duration.ofSeconds(TestConfig.get().getInt("WaitTimeoutSeconds", 20));
+    }
+
+    /**
+     * Create a wait polling with an adaptive backoff.
+     * @param driver the driver to wait on
+     * @param timeout the maximum time to wait
+     * @return the wait
+     */
+    public static FluentWait<WebDriver> on(WebDriver driver, Duration timeout)
+    {
+        Duration min = Duration.ofMillis(TestConfig.get().getInt("WaitPollMinMillis", 50));
+        Duration max = Duration.ofMillis(TestConfig.get().getInt("WaitPollMaxMillis", 500));
+        return new FluentWait<>(driver, Clock.systemDefaultZone(), new BackoffSleeper(min, max))
+                .withTimeout(timeout)
+                .pollingEvery(min)
+                .ignoring(NoSuchElementException.class)
+                .ignoring(StaleElementReferenceException.class);
+    }
+
+    /**
+     * Wait until a condition returns a value which is neither null nor false.
+     * @param driver the driver to wait on
+     * @param condition the condition to poll
+     * @return the value returned by the condition
+     */
+    public static <T> T until(WebDriver driver, Function<? super WebDriver, T> condition)
+    {
+        return on(driver, defaultTimeout()).until(condition);
+    }
+
+    /**
+     * Wait until an element is visible.
+     * @param driver the driver to wait on
+     * @param locator the locator of the element
+     * @return the element
+     */
+    public static WebElement visible(WebDriver driver, By locator)
+    {
+        return until(driver, ExpectedConditions.visibilityOfElementLocated(locator));
+    }
+
+    /**
+     * Wait until an element is visible and enabled.
+     * @param driver the driver to wait on
+     * @param locator the locator of the element
+     * @return the element
+     */
+    public static WebElement clickable(WebDriver driver, By locator)
+    {
+        return until(driver, ExpectedConditions.elementToBeClickable(locator));
+    }
+
+    /**
+     * Wait until an element is visible, the element may be a cached element of {@link pages.ElementCache}.
+     * @param driver the driver to wait on
+     * @param element the element
+     * @return the element
+     */
+    public static WebElement visible(WebDriver driver, WebElement element)
+    {
+        return until(driver, ExpectedConditions.visibilityOf(element));
+    }
+
+    /**
+     * Wait until an element is visible and enabled, the element may be a cached element of {@link pages.ElementCache}.
+     * @param driver the driver to wait on
+     * @param element the element
+     * @return the element
+     */
+    public static WebElement clickable(WebDriver driver, WebElement element)
+    {
+        return until(driver, ExpectedConditions.elementToBeClickable(element));
+    }
+
+    /**
+     * Wait until at least one element is present.
+     * @param driver the driver to wait on
+     * @param locator the locator of the elements
+     * @param timeout the maximum time to wait
+     * @return the elements or an empty list if none appeared before the timeout
+     */
+    public static List<WebElement> present(WebDriver driver, By locator, Duration timeout)
+    {
+        try {
+            return on(driver, timeout).until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+        } catch (TimeoutException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Wait until the document is loaded and its DOM has stopped changing.
+     * @param driver the driver to wait on
+     */
+    public static void domQuiet(WebDriver driver)
+    {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        until(driver, Waits::isDomQuiet);
+    }
+
+    /**
+     * Wait until the document is loaded and its DOM has stopped changing, at most for a bounded time.
+     * @param driver the driver to wait on
+     * @param timeout the maximum time to wait
+     * @return true if the DOM settled before the timeout
+     */
+    public static boolean domQuiet(WebDriver driver, Duration timeout)
+    {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return true;
+        }
+        try {
+            on(driver, timeout).until(Waits::isDomQuiet);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDomQuiet(WebDriver driver)
+    {
+        long quietMillis = TestConfig.get().getInt("DomQuietMillis", 300);
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(DOM_QUIET_SCRIPT, quietMillis));
+    }
+
+    /**
+     * Wait until an element is detached from the DOM, used to detect that a navigation has started.
+     * @param driver the driver to wait on
+     * @param element the element of the previous page
+     */
+    public static void stale(WebDriver driver, WebElement element)
+    {
+        until(driver, ExpectedConditions.stalenessOf(element));
+    }
+
+    /**
+     * Sleeps between the polls, doubling the interval after every poll up to a maximum.
+     */
+    private static class BackoffSleeper implements Sleeper {
+        private final Duration max;
+        private Duration next;
+
+        BackoffSleeper(Duration min, Duration max)
+        {
+            this.max = max;
+            this.next = min;
+        }
+
+        @Override
+        public void sleep(Duration duration) throws InterruptedException
+        {
+            Thread.sleep(next.toMillis());
+            Duration doubled = next.multipliedBy(2);
+            next = doubled.compareTo(max) > 0 ? max : doubled;
+        }
+    }
+}
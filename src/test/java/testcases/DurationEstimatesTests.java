@@ -0,0 +1,49 @@
+package testcases;
+
+import metrics.DurationEstimates;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates the longest-first ordering and the makespan prediction of the scheduler, no browser is needed.
+ */
+public class DurationEstimatesTests {
+    /**
+     * The failed items come first, then the items by decreasing estimate, an unknown item takes the median of the
+     * known ones and the items with equal estimates keep their order.
+     */
+    @Test
+    public void Test_LongestFirstOrder()
+    {
+        Map<String, Long> estimates = new HashMap<>();
+        estimates.put("short", 100L);
+        estimates.put("medium", 500L);
+        estimates.put("long", 2000L);
+        estimates.put("flaky", 50L);
+        estimates.put("tie", 500L);
+        List<String> items = Arrays.asList("short", "medium", "unknown", "long", "flaky", "tie");
+        List<String> ordered = DurationEstimates.longestFirst(items, estimates::get, null, "flaky"::equals);
+        Assert.assertEquals(ordered, Arrays.asList("flaky", "long", "medium", "unknown", "tie", "short"));
+        Assert.assertEquals(DurationEstimates.longestFirst(items, estimates::get, 5000L, null),
+                Arrays.asList("unknown", "long", "medium", "tie", "short", "flaky"));
+    }
+
+    /**
+     * Running the longest item first on two workers finishes when the longest item does.
+     */
+    @Test
+    public void Test_MakespanOfLongestFirst()
+    {
+        List<Long> declared = Arrays.asList(1L, 1L, 1L, 4L);
+        Assert.assertEquals(DurationEstimates.makespan(declared, 2), 5);
+        List<Long> ordered = DurationEstimates.longestFirst(declared, millis -> millis, null, null);
+        Assert.assertEquals(ordered, Arrays.asList(4L, 1L, 1L, 1L));
+        Assert.assertEquals(DurationEstimates.makespan(ordered, 2), 4);
+        Assert.assertEquals(DurationEstimates.makespan(declared, 1), 7);
+    }
+}
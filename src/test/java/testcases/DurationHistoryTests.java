@@ -0,0 +1,48 @@
+package testcases;
+
+import metrics.DurationHistory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Validates the rolling duration history and its median and MAD baseline, no browser is needed.
+ */
+public class DurationHistoryTests {
+    /**
+     * The history keeps the last durations of every key and survives a save and a reload.
+     */
+    @Test
+    public void Test_HistoryRollsAndReloads() throws IOException {
+        Path file = Files.createTempFile("durations", ".properties");
+        file.toFile().deleteOnExit();
+        DurationHistory history = DurationHistory.open(file, 3);
+        String row = "row:testcases.SearchPageTests.Test_ValidateResultsOnSearchPages[selenium, 2, 3]";
+        for (long millis = 100; millis <= 500; millis += 100) {
+            history.add(row, millis);
+        }
+        history.save();
+        DurationHistory reloaded = DurationHistory.open(file, 3);
+        Assert.assertEquals(reloaded.size(), 1);
+        Assert.assertEquals(reloaded.samples(row), Arrays.asList(300L, 400L, 500L));
+        Assert.assertTrue(reloaded.samples("test:unknown").isEmpty());
+    }
+
+    /**
+     * The threshold is the median plus k times the MAD, an outlier of the history does not move it.
+     */
+    @Test
+    public void Test_BaselineIsRobustToOutliers()
+    {
+        DurationHistory.Baseline baseline = DurationHistory.baseline(Arrays.asList(1000L, 1100L, 900L, 1050L, 9000L));
+        Assert.assertEquals(baseline.getMedian(), 1050.0);
+        Assert.assertEquals(baseline.getMad(), 50.0);
+        Assert.assertEquals(baseline.threshold(3, 0), 1200.0);
+        Assert.assertEquals(baseline.threshold(3, 250), 1300.0);
+        Assert.assertEquals(DurationHistory.baseline(Arrays.asList(1000L, 2000L)).getMedian(), 1500.0);
+    }
+}
@@ -0,0 +1,139 @@
+package testcases;
+
+import base.InProcessDriver;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pages.ElementCache;
+import pages.Locators;
+import pages.ResultsPage;
+import pages.SearchPage;
+
+/**
+ * Validates the element cache on in-process sessions against the local HTML fixtures,
+ * no browser or network access is needed.
+ */
+public class ElementCacheTests extends InProcessTestBase {
+    /**
+     * The element cache of the session of the current test.
+     */
+    ElementCache cache;
+
+    /**
+     * Every test gets its own session, decorated with the navigation listener of its cache.
+     */
+    @Override
+    protected WebDriver createSession()
+    {
+        return null;
+    }
+
+    /**
+     * Creates a new session with its own cache and opens the search page.
+     */
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        cache = new ElementCache();
+        driver = new EventFiringDecorator(cache.navigationListener()).decorate(InProcessDriver.create());
+        ElementCache.register(driver, cache);
+        driver.get(server.url("search.html"));
+    }
+
+    /**
+     * Quits the session of the test.
+     */
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod()
+    {
+        if (driver != null) {
+            driver.quit();
+            driver = null;
+        }
+    }
+
+    /**
+     * The page objects reuse the search field instead of finding it on every interaction.
+     */
+    @Test
+    public void Test_RepeatedInteractionsHitTheCache()
+    {
+        SearchPage searchPageObj = new SearchPage(driver);
+        searchPageObj.sendDataToSearchField("sele");
+        searchPageObj.sendDataToSearchField("nium");
+        Assert.assertEquals(cache.misses(), 1);
+        Assert.assertTrue(cache.hits() >= 2, "hits: " + cache.hits());
+        Assert.assertEquals(driver.findElement(Locators.get("search.textField")).getAttribute("value"), "selenium");
+    }
+
+    /**
+     * A navigation through the driver drops the elements of the previous page.
+     */
+    @Test
+    public void Test_NavigationInvalidatesTheCache()
+    {
+        WebElement field = cache.element(Locators.get("search.textField"));
+        field.sendKeys("selenium");
+        driver.get(server.url("search.html"));
+        Assert.assertEquals(field.getAttribute("value"), "");
+        Assert.assertEquals(cache.misses(), 2);
+        Assert.assertEquals(cache.staleLookups(), 0);
+        Assert.assertEquals(cache.invalidations(), 1);
+    }
+
+    /**
+     * A click leaving the page is detected from the document identity, then the pagination links of every results
+     * page are found on their own page.
+     */
+    @Test
+    public void Test_ClickNavigationIsDetected()
+    {
+        SearchPage searchPageObj = new SearchPage(driver);
+        ResultsPage resultPageObj = new ResultsPage(driver);
+        searchPageObj.sendDataToSearchField("selenium");
+        searchPageObj.clickSearchButton();
+        Assert.assertEquals(resultPageObj.waitForResults(), 3);
+        resultPageObj.pageNavigator("2");
+        resultPageObj.pageNavigator("3");
+        Assert.assertTrue(driver.getCurrentUrl().endsWith("results3.html"));
+        Assert.assertTrue(cache.invalidations() >= 1, "invalidations: " + cache.invalidations());
+    }
+
+    /**
+     * A stale element is found again and the call is retried transparently, the navigation of an undecorated
+     * session is not reported to its cache.
+     */
+    @Test
+    public void Test_StaleElementIsFoundAgain()
+    {
+        WebDriver undecorated = InProcessDriver.create();
+        try {
+            undecorated.get(server.url("search.html"));
+            ElementCache undecoratedCache = ElementCache.of(undecorated);
+            WebElement field = undecoratedCache.element(Locators.get("search.textField"));
+            Assert.assertEquals(field.getTagName(), "input");
+            undecorated.get(server.url("search.html"));
+            Assert.assertEquals(field.getTagName(), "input");
+            Assert.assertEquals(undecoratedCache.staleLookups(), 1);
+            Assert.assertEquals(undecoratedCache.misses(), 2);
+        } finally {
+            undecorated.quit();
+        }
+    }
+
+    /**
+     * A quit session is forgotten, the cache of the session and its elements are not kept.
+     */
+    @Test
+    public void Test_ForgottenSessionGetsANewCache()
+    {
+        cache.element(Locators.get("search.textField")).sendKeys("selenium");
+        ElementCache.forget(driver);
+        Assert.assertEquals(cache.invalidations(), 1);
+        Assert.assertNotSame(ElementCache.of(driver), cache);
+    }
+}
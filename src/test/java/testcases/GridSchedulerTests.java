@@ -0,0 +1,153 @@
+package testcases;
+
+import base.GridScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates the remote session scheduling against stub grid hubs served on the loopback interface,
+ * no grid or browser is needed.
+ */
+public class GridSchedulerTests {
+    /**
+     * The stub hubs started by the current test.
+     */
+    private final List<StubHub> hubs = new ArrayList<>();
+
+    /**
+     * Stops the stub hubs after each test method.
+     */
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod()
+    {
+        for (StubHub hub : hubs) {
+            hub.server.stop(0);
+        }
+        hubs.clear();
+    }
+
+    /**
+     * A rejected session request is retried and the permit is given back when the session quits.
+     */
+    @Test
+    public void Test_RetriesRejectedSessionRequest() throws IOException {
+        StubHub hub = startHub(1, 1);
+        GridScheduler scheduler = new GridScheduler(Arrays.asList(hub.url), 1, Duration.ofSeconds(10),
+                Duration.ofMillis(10), 3, 10);
+        WebDriver driver = scheduler.newSession(chrome());
+        Assert.assertEquals(hub.sessionRequests.get(), 2);
+        Assert.assertEquals(scheduler.availablePermits(), 0);
+        driver.quit();
+        Assert.assertEquals(scheduler.availablePermits(), 1);
+    }
+
+    /**
+     * A session request waiting longer than the queue timeout fails instead of flooding the hub.
+     */
+    @Test
+    public void Test_QueuedRequestTimesOut() throws IOException {
+        StubHub hub = startHub(2, 0);
+        GridScheduler scheduler = new GridScheduler(Arrays.asList(hub.url), 1, Duration.ofMillis(300),
+                Duration.ofMillis(10), 0, 10);
+        WebDriver driver = scheduler.newSession(chrome());
+        try {
+            Assert.assertThrows(SessionNotCreatedException.class, () -> scheduler.newSession(chrome()));
+            Assert.assertEquals(hub.sessionRequests.get(), 1);
+        } finally {
+            driver.quit();
+        }
+    }
+
+    /**
+     * The session request is sent to the hub reporting a free slot for the browser.
+     */
+    @Test
+    public void Test_BalancesAcrossHubs() throws IOException {
+        StubHub busy = startHub(0, 0);
+        StubHub free = startHub(1, 0);
+        GridScheduler scheduler = new GridScheduler(Arrays.asList(busy.url, free.url), 2, Duration.ofSeconds(10),
+                Duration.ofMillis(10), 0, 10);
+        WebDriver driver = scheduler.newSession(chrome());
+        driver.quit();
+        Assert.assertEquals(busy.sessionRequests.get(), 0);
+        Assert.assertEquals(free.sessionRequests.get(), 1);
+    }
+
+    private static DesiredCapabilities chrome()
+    {
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilities.setBrowserName("chrome");
+        return capabilities;
+    }
+
+    private StubHub startHub(int freeSlots, int rejections) throws IOException {
+        StubHub hub = new StubHub(freeSlots, rejections);
+        hubs.add(hub);
+        return hub;
+    }
+
+    /**
+     * A grid hub answering the status, new session and delete session commands.
+     */
+    private static class StubHub {
+        private final HttpServer server;
+        private final URL url;
+        private final AtomicInteger sessionRequests = new AtomicInteger();
+        private final AtomicInteger rejections;
+
+        StubHub(int freeSlots, int rejections) throws IOException {
+            this.rejections = new AtomicInteger(rejections);
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            StringBuilder slots = new StringBuilder();
+            for (int i = 0; i < freeSlots; i++) {
+                slots.append(i == 0 ? "" : ",").append("{\"session\":null,\"stereotype\":{\"browserName\":\"chrome\"}}");
+            }
+            String status = "{\"value\":{\"ready\":true,\"nodes\":[{\"availability\":\"UP\",\"slots\":[" + slots + "]}]}}";
+            server.createContext("/status", exchange -> answer(exchange, 200, status));
+            server.createContext("/session", exchange -> {
+                if (exchange.getRequestMethod().equals("DELETE")) {
+                    answer(exchange, 200, "{\"value\":null}");
+                    return;
+                }
+                int request = sessionRequests.incrementAndGet();
+                if (this.rejections.getAndDecrement() > 0) {
+                    answer(exchange, 500, "{\"value\":{\"error\":\"session not created\","
+                            + "\"message\":\"grid is busy\",\"stacktrace\":\"\"}}");
+                } else {
+                    answer(exchange, 200, "{\"value\":{\"sessionId\":\"session-" + request + "\","
+                            + "\"capabilities\":{\"browserName\":\"chrome\"}}}");
+                }
+            });
+            server.start();
+            url = URI.create("http://127.0.0.1:" + server.getAddress().getPort()).toURL();
+        }
+
+        private static void answer(HttpExchange exchange, int code, String body) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
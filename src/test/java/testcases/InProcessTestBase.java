@@ -0,0 +1,74 @@
+package testcases;
+
+import base.InProcessDriver;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import utils.StaticFileServer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Base of the offline tests, which run against the local HTML fixtures under src/test/resources/site:
+ * <ul>
+ *     <li>the fixtures are served on the loopback interface by a static server started once per class
+ *     <li>an in-process session is shared by the tests of the class and opens the search page before every test,
+ *     a class creating its own sessions overrides {@link #createSession()}
+ * </ul>
+ * No browser or network access is needed.
+ */
+public abstract class InProcessTestBase {
+    /**
+     * Serves the HTML fixtures.
+     */
+    StaticFileServer server;
+    /**
+     * The in-process session shared by the tests of the class, null if the class creates its own sessions.
+     */
+    WebDriver driver;
+
+    /**
+     * Starts the static server and the session of the class.
+     */
+    @BeforeClass
+    public void startFixtures() throws IOException {
+        server = StaticFileServer.start(Paths.get("src/test/resources/site"));
+        driver = createSession();
+    }
+
+    /**
+     * Create the session shared by the tests of the class.
+     * @return the session, null if the tests create their own sessions
+     */
+    protected WebDriver createSession()
+    {
+        return InProcessDriver.create();
+    }
+
+    /**
+     * Opens the search page on the shared session before each test method.
+     */
+    @BeforeMethod
+    public void openSearchPage()
+    {
+        if (driver != null) {
+            driver.get(server.url("search.html"));
+        }
+    }
+
+    /**
+     * Stops the shared session and the static server.
+     */
+    @AfterClass(alwaysRun = true)
+    public void stopFixtures()
+    {
+        if (driver != null) {
+            driver.quit();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+}
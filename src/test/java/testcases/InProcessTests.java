@@ -0,0 +1,75 @@
+package testcases;
+
+import base.InProcessDriver;
+import keywords.Keyword;
+import keywords.KeywordExecutor;
+import keywords.KeywordPlan;
+import keywords.KeywordStep;
+import keywords.SheetResult;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import pages.Locators;
+import pages.ResultsPage;
+import pages.SearchPage;
+
+import java.util.Arrays;
+
+/**
+ * Runs the search page objects and the keyword engine on the in-process driver against the local HTML fixtures
+ * under src/test/resources/site, no browser or network access is needed.
+ */
+public class InProcessTests extends InProcessTestBase {
+    /**
+     * The SearchPage object for interacting with search functionality.
+     */
+    SearchPage searchPageObj;
+    /**
+     * The ResultsPage object for interacting with search results.
+     */
+    ResultsPage resultPageObj;
+
+    /**
+     * Creates the page objects on the in-process session.
+     */
+    @BeforeClass
+    public void beforeClass()
+    {
+        searchPageObj = new SearchPage(driver);
+        resultPageObj = new ResultsPage(driver);
+    }
+
+    /**
+     * The search and pagination flow of SearchPageTests runs unchanged on the in-process driver.
+     */
+    @Test
+    public void Test_ValidateResultsOnSearchPages()
+    {
+        Assert.assertTrue(InProcessDriver.isInProcess(driver));
+        searchPageObj.sendDataToSearchField("selenium");
+        searchPageObj.clickSearchButton();
+        Assert.assertEquals(resultPageObj.waitForResults(), 3);
+        resultPageObj.scrollToPageEnd();
+        resultPageObj.pageNavigator("2");
+        int numberOfSecondPageResult = resultPageObj.getResultsCount();
+        resultPageObj.pageNavigator("3");
+        Assert.assertTrue(driver.getCurrentUrl().endsWith("results3.html"));
+        Assert.assertEquals(resultPageObj.getResultsCount(), numberOfSecondPageResult);
+    }
+
+    /**
+     * The keyword steps run on the in-process driver and the scroll step is skipped instead of failing.
+     */
+    @Test
+    public void Test_KeywordPlanSkipsBrowserOnlySteps()
+    {
+        KeywordPlan plan = new KeywordPlan("TC_inprocess", Arrays.asList(
+                new KeywordStep(2, "type the keyword", Keyword.SEND_DATA, Locators.get("search.textField"), "selenium", 0),
+                new KeywordStep(3, "search", Keyword.CLICK, Locators.get("search.button"), "", 0),
+                new KeywordStep(4, "scroll", Keyword.SCROLL, null, "", 0),
+                new KeywordStep(5, "count the results", Keyword.GET_RESULTS, Locators.get("results.items"), "", 0)));
+        SheetResult result = new KeywordExecutor(driver).execute(plan);
+        Assert.assertTrue(result.isPassed(), "Failed steps: " + result.getFailures());
+        Assert.assertEquals(resultPageObj.getResultsCount(), 3);
+    }
+}
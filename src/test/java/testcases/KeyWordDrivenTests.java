@@ -20,7 +20,7 @@ public DataProvider dataProvider;
     @BeforeMethod
     public void beforeMethod(){
         openBrowser();
-        dataProvider = new DataProvider(driver);
+        dataProvider = new DataProvider(getDriver());
     }
 
     /**
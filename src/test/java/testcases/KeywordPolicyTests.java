@@ -0,0 +1,94 @@
+package testcases;
+
+import keywords.Keyword;
+import keywords.KeywordExecutor;
+import keywords.KeywordPlan;
+import keywords.KeywordStep;
+import keywords.SheetResult;
+import keywords.StepOutcome;
+import keywords.StepPolicy;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.Locators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates the failure policies of the keyword executor on the in-process driver against the local HTML fixtures,
+ * no browser or network access is needed.
+ */
+public class KeywordPolicyTests extends InProcessTestBase {
+    /**
+     * A locator matching nothing on the fixtures.
+     */
+    private static final By MISSING = By.id("missing");
+
+    /**
+     * The steps following a failed step are skipped without waiting for their locators.
+     */
+    @Test
+    public void Test_AbortSheetSkipsRemainingSteps()
+    {
+        KeywordPlan plan = new KeywordPlan("TC_abort", Arrays.asList(
+                new KeywordStep(2, "type the keyword", Keyword.SEND_DATA, Locators.get("search.textField"), "selenium", 0),
+                new KeywordStep(3, "broken search button", Keyword.CLICK, MISSING, "", 0, 300),
+                new KeywordStep(4, "count the results", Keyword.GET_RESULTS, Locators.get("results.items"), "", 0),
+                new KeywordStep(5, "wait", Keyword.SLEEP, null, "5000", 5000)));
+        SheetResult result = new KeywordExecutor(driver, StepPolicy.ABORT_SHEET).execute(plan);
+        Assert.assertEquals(statuses(result), Arrays.asList(StepOutcome.Status.PASSED, StepOutcome.Status.FAILED,
+                StepOutcome.Status.SKIPPED, StepOutcome.Status.SKIPPED));
+        Assert.assertFalse(result.isPassed());
+        Assert.assertEquals(result.getExecutedSteps(), 2);
+        Assert.assertEquals(result.getSkippedSteps(), 2);
+        Assert.assertTrue(result.getDuration().toMillis() < 5000, result.toString());
+        Assert.assertTrue(result.failureMessage().contains("row 3 [click] broken search button"), result.failureMessage());
+        Assert.assertTrue(result.failureMessage().contains("row 4 [get results] count the results skipped: row 3 failed"),
+                result.failureMessage());
+    }
+
+    /**
+     * A failed read of the page only skips the following steps on the same locator.
+     */
+    @Test
+    public void Test_SkipDependentRunsIndependentSteps()
+    {
+        KeywordPlan plan = new KeywordPlan("TC_dependent", Arrays.asList(
+                new KeywordStep(2, "wait for the banner", Keyword.WAIT_FOR, MISSING, "300", 300),
+                new KeywordStep(3, "count the banners", Keyword.GET_RESULTS, MISSING, "", 0),
+                new KeywordStep(4, "type the keyword", Keyword.SEND_DATA, Locators.get("search.textField"), "selenium", 0),
+                new KeywordStep(5, "search", Keyword.CLICK, Locators.get("search.button"), "", 0),
+                new KeywordStep(6, "count the results", Keyword.GET_RESULTS, Locators.get("results.items"), "", 0)));
+        SheetResult result = new KeywordExecutor(driver, StepPolicy.SKIP_DEPENDENT).execute(plan);
+        Assert.assertEquals(statuses(result), Arrays.asList(StepOutcome.Status.FAILED, StepOutcome.Status.SKIPPED,
+                StepOutcome.Status.PASSED, StepOutcome.Status.PASSED, StepOutcome.Status.PASSED));
+        Assert.assertEquals(result.getOutcomes().get(1).getSkipReason(), "row 2 failed on the same locator");
+    }
+
+    /**
+     * Every step runs and every failure is reported.
+     */
+    @Test
+    public void Test_ContinueRunsEveryStep()
+    {
+        KeywordPlan plan = new KeywordPlan("TC_continue", Arrays.asList(
+                new KeywordStep(2, "broken field", Keyword.SEND_DATA, MISSING, "selenium", 0, 300),
+                new KeywordStep(3, "count the banners", Keyword.GET_RESULTS, MISSING, "", 0, 300),
+                new KeywordStep(4, "type the keyword", Keyword.SEND_DATA, Locators.get("search.textField"), "selenium", 0)));
+        SheetResult result = new KeywordExecutor(driver, StepPolicy.CONTINUE).execute(plan);
+        Assert.assertEquals(statuses(result), Arrays.asList(StepOutcome.Status.FAILED, StepOutcome.Status.FAILED,
+                StepOutcome.Status.PASSED));
+        Assert.assertEquals(result.getFailures().size(), 2);
+    }
+
+    private static List<StepOutcome.Status> statuses(SheetResult result)
+    {
+        List<StepOutcome.Status> statuses = new ArrayList<>();
+        for (StepOutcome outcome : result.getOutcomes()) {
+            statuses.add(outcome.getStatus());
+        }
+        return statuses;
+    }
+}
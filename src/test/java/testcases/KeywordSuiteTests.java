@@ -0,0 +1,35 @@
+package testcases;
+
+import base.TestBase;
+import io.qameta.allure.Step;
+import keywords.KeywordSuiteRunner;
+import keywords.SheetResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.Constants;
+import utils.TestConfig;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs every keyword test case sheet of the keyword workbook concurrently on virtual threads.
+ */
+public class KeywordSuiteTests extends TestBase {
+
+    /**
+     * Executes all the {@code TC_} sheets, each sheet is reported as a step of this test.
+     */
+    @Step("start executing the keyword suite")
+    @Test
+    public void Test_RunKeywordSuite()
+    {
+        KeywordSuiteRunner runner = new KeywordSuiteRunner(TestBase::createDriver, TestConfig.get().getTargetUrl(),
+                TestConfig.get().getInt("KeywordSuiteSessions", 4));
+        List<SheetResult> results = runner.run(Constants.filePath, TestConfig.get().get("KeywordSheetPrefix", "TC_"));
+        KeywordSuiteRunner.report(results);
+        Assert.assertFalse(results.isEmpty(), "No keyword sheet found in " + Constants.filePath);
+        List<SheetResult> failed = results.stream().filter(result -> !result.isPassed()).collect(Collectors.toList());
+        Assert.assertTrue(failed.isEmpty(), "Failed keyword sheets: " + failed);
+    }
+}
@@ -0,0 +1,88 @@
+package testcases;
+
+import base.InProcessDriver;
+import load.Journey;
+import load.LoadProfile;
+import load.LoadReport;
+import load.LoadRunner;
+import org.HdrHistogram.Histogram;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates the load mode against the local HTML fixtures served on the loopback interface with in-process
+ * sessions, no browser or network access is needed.
+ */
+public class LoadRunnerTests extends InProcessTestBase {
+    /**
+     * Every virtual user opens its own session.
+     */
+    @Override
+    protected WebDriver createSession()
+    {
+        return null;
+    }
+
+    /**
+     * The search flow runs as concurrent virtual users and every step gets its own statistics.
+     */
+    @Test
+    public void Test_SearchJourneyUnderLoad()
+    {
+        LoadProfile profile = new LoadProfile(3, Duration.ofMillis(300), Duration.ZERO, 6, Duration.ofSeconds(2));
+        LoadReport report = new LoadRunner(profile, InProcessDriver::create)
+                .run(Journey.search(server.url("search.html"), "selenium", "2", "3"));
+        report.publish();
+        Assert.assertEquals(report.names(),
+                Arrays.asList("open", "type", "search", "results", "page 2", "page 3", LoadReport.ITERATION));
+        Assert.assertEquals(report.getSessionFailures(), 0);
+        Assert.assertTrue(report.count(LoadReport.ITERATION) >= 6, report.summary());
+        Assert.assertEquals(report.errors(LoadReport.ITERATION), 0, report.getErrors().toString());
+        Assert.assertEquals(report.count("page 3"), report.count(LoadReport.ITERATION));
+        Assert.assertTrue(report.throughput(LoadReport.ITERATION) > 0);
+        Assert.assertTrue(report.percentileMillis("results", 99) > 0);
+    }
+
+    /**
+     * A stalled iteration delays the following scheduled iterations, their waiting time is part of their latency.
+     */
+    @Test
+    public void Test_CoordinatedOmissionIsRecorded()
+    {
+        AtomicInteger iterations = new AtomicInteger();
+        Journey journey = new Journey("stall").step("work",
+                driver -> Thread.sleep(iterations.incrementAndGet() == 3 ? 500 : 5));
+        LoadProfile profile = new LoadProfile(1, Duration.ZERO, Duration.ZERO, 20, Duration.ofSeconds(1));
+        LoadReport report = new LoadRunner(profile, () -> null).run(journey);
+        Histogram work = report.histogram("work");
+        long slow = work.getTotalCount() - work.getCountBetweenValues(0, 100_000);
+        Assert.assertTrue(slow >= 5, "Only " + slow + " slow samples recorded: " + report.summary());
+        Assert.assertTrue(report.percentileMillis("work", 50) < 500, report.summary());
+        Assert.assertEquals(report.errorRate("work"), 0.0);
+    }
+
+    /**
+     * A failing step is counted as an error and ends its iteration.
+     */
+    @Test
+    public void Test_FailedStepEndsIteration()
+    {
+        Journey journey = new Journey("broken")
+                .step("fail", driver -> {
+                    throw new IllegalStateException("stub failure");
+                })
+                .step("never", driver -> Assert.fail("the iteration should have stopped"));
+        LoadProfile profile = new LoadProfile(2, Duration.ZERO, Duration.ZERO, 20, Duration.ofMillis(300));
+        LoadReport report = new LoadRunner(profile, () -> null).run(journey);
+        Assert.assertTrue(report.count("fail") > 0);
+        Assert.assertEquals(report.errorRate("fail"), 1.0);
+        Assert.assertEquals(report.errorRate(LoadReport.ITERATION), 1.0);
+        Assert.assertEquals(report.count("never"), 0);
+        Assert.assertTrue(report.getErrors().get(0).contains("stub failure"));
+    }
+}
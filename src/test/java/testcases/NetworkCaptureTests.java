@@ -0,0 +1,105 @@
+package testcases;
+
+import base.DriverBinaries;
+import metrics.NavigationTiming;
+import metrics.NetworkCapture;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import pages.ResultsPage;
+import utils.StaticFileServer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Validates the network capture and the navigation timing against the static results page served locally,
+ * the pages are opened in a headless Chrome and no network access is needed.
+ */
+public class NetworkCaptureTests {
+    /**
+     * Serves the pages under src/test/resources/site.
+     */
+    StaticFileServer server;
+    /**
+     * The headless Chrome session.
+     */
+    WebDriver driver;
+    /**
+     * The ResultsPage object reading the capture.
+     */
+    ResultsPage resultPageObj;
+
+    /**
+     * Starts the static server and a captured headless Chrome session, the tests are skipped without Chrome.
+     */
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        server = StaticFileServer.start(Paths.get("src/test/resources/site"));
+        try {
+            DriverBinaries.setup("chrome");
+            ChromeOptions options = new ChromeOptions();
+            options.addArguments("--headless=new", "--remote-allow-origins=*");
+            driver = new ChromeDriver(options);
+        } catch (RuntimeException e) {
+            throw new SkipException("Chrome is not available: " + e.getMessage());
+        }
+        NetworkCapture.attach(driver);
+        resultPageObj = new ResultsPage(driver);
+    }
+
+    /**
+     * Stops the session and the static server.
+     */
+    @AfterClass(alwaysRun = true)
+    public void afterClass()
+    {
+        if (driver != null) {
+            driver.quit();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * The document and its sub resources of the last navigation are captured.
+     */
+    @Test
+    public void Test_CapturesResponsesOfLastNavigation()
+    {
+        driver.get(server.url("results.html"));
+        NetworkCapture.of(driver).awaitResponse(driver, "app.js", Duration.ofSeconds(10));
+        Assert.assertTrue(resultPageObj.networkResponses().stream()
+                .anyMatch(response -> response.url.endsWith("results.html") && response.status == 200));
+        Assert.assertTrue(resultPageObj.networkResponses().stream()
+                .anyMatch(response -> response.url.endsWith("style.css") && response.mimeType.equals("text/css")));
+
+        driver.get(server.url("missing.html"));
+        NetworkCapture.of(driver).awaitResponse(driver, "missing.html", Duration.ofSeconds(10));
+        Assert.assertTrue(resultPageObj.networkResponses().stream().noneMatch(response -> response.url.endsWith("style.css")));
+        Assert.assertEquals(resultPageObj.networkResponses().get(0).status, 404);
+    }
+
+    /**
+     * The navigation timing and the long task of the page are read after the load event.
+     */
+    @Test
+    public void Test_ReadsNavigationTiming()
+    {
+        driver.get(server.url("results.html"));
+        NavigationTiming timing = resultPageObj.lastNavigationTiming();
+        Assert.assertTrue(timing.ttfbMillis >= 0);
+        Assert.assertTrue(timing.domContentLoadedMillis >= timing.ttfbMillis);
+        Assert.assertTrue(timing.loadMillis >= timing.domContentLoadedMillis);
+        Assert.assertFalse(timing.longTaskMillis.isEmpty(), "The blocking script should be reported as a long task");
+        timing.assertLoadedWithin(Duration.ofSeconds(10));
+        Assert.assertThrows(AssertionError.class, () -> timing.assertBlockingWithin(Duration.ZERO));
+    }
+}
@@ -0,0 +1,45 @@
+package testcases;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.ReplayArchive;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * Validates the replay archive file round trip, no browser is needed.
+ */
+public class ReplayArchiveTests {
+
+    /**
+     * A saved archive is mapped back with the same responses, ignoring the volatile query parameters.
+     */
+    @Test
+    public void Test_SavedArchiveIsReplayed() throws IOException {
+        HashSet<String> ignored = new HashSet<>(Arrays.asList("cvid", "form"));
+        ReplayArchive recorded = ReplayArchive.create(ignored);
+        recorded.put("GET", "https://www.bing.com/search?q=selenium&cvid=123&form=QBLH", 200,
+                Collections.singletonList(new String[]{"Content-Type", "text/html"}),
+                "<html>results</html>".getBytes(StandardCharsets.UTF_8));
+        recorded.put("GET", "https://www.bing.com/logo.png", 200, Collections.emptyList(), new byte[]{1, 2, 3});
+        Path file = Files.createTempFile("pages", ".rpl");
+        // the mapping is only released by the garbage collector, a mapped file can not be deleted on windows
+        file.toFile().deleteOnExit();
+        recorded.save(file);
+        ReplayArchive replayed = ReplayArchive.open(file, ignored);
+        Assert.assertEquals(replayed.size(), 2);
+        ReplayArchive.Entry page = replayed.get("GET", "https://www.bing.com/search?q=selenium&cvid=456&form=ANAB#top");
+        Assert.assertNotNull(page);
+        Assert.assertEquals(page.status, 200);
+        Assert.assertEquals(page.headers.get(0), new String[]{"Content-Type", "text/html"});
+        Assert.assertEquals(new String(page.bodyBytes(), StandardCharsets.UTF_8), "<html>results</html>");
+        Assert.assertEquals(replayed.get("GET", "https://www.bing.com/logo.png").bodyBytes(), new byte[]{1, 2, 3});
+        Assert.assertNull(replayed.get("GET", "https://www.bing.com/search?q=other"));
+    }
+}
@@ -0,0 +1,71 @@
+package testcases;
+
+import base.TestBase;
+import keywords.KeywordCompiler;
+import load.Journey;
+import load.LoadProfile;
+import load.LoadReport;
+import load.LoadRunner;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.Constants;
+import utils.ExcelDataIndex;
+import utils.TestConfig;
+
+import java.io.IOException;
+
+/**
+ * Replays the flows of SearchPageTests and KeyWordDrivenTests as concurrent virtual users against the target URL.
+ * Skipped unless the load mode is enabled with {@code LoadUsers} in the configuration file.
+ */
+public class SearchLoadTests {
+    /**
+     * The load runner creating the sessions like the functional tests.
+     */
+    LoadRunner loadRunner;
+
+    /**
+     * Skips the load tests when the load mode is off and creates the runner from the configuration file.
+     */
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        if (!LoadProfile.isEnabled()) {
+            throw new SkipException("The load mode is off, set LoadUsers to run the load tests");
+        }
+        loadRunner = new LoadRunner(LoadProfile.fromConfig(TestConfig.get()), TestBase::createDriver);
+    }
+
+    /**
+     * Runs the search and pagination flow with the first data row of Test_ValidateResultsOnSearchPages.
+     */
+    @Test
+    public void Test_SearchPagesUnderLoad() throws IOException {
+        Object[] row = ExcelDataIndex.of(TestConfig.get().getExcelDataSheet()).rows("ValidateResultsOnSearchPages")[0];
+        Journey journey = Journey.search(TestConfig.get().getTargetUrl(), String.valueOf(row[0]),
+                String.valueOf(row[1]), String.valueOf(row[2]));
+        assertHealthy(loadRunner.run(journey));
+    }
+
+    /**
+     * Runs the keyword sheet of KeyWordDrivenTests.
+     */
+    @Test
+    public void Test_KeywordSheetUnderLoad()
+    {
+        Journey journey = Journey.keywordSheet(TestConfig.get().getTargetUrl(),
+                KeywordCompiler.compile(Constants.filePath, "TC_1"));
+        assertHealthy(loadRunner.run(journey));
+    }
+
+    private static void assertHealthy(LoadReport report)
+    {
+        report.publish();
+        Assert.assertEquals(report.getSessionFailures(), 0, "Virtual users without a session");
+        Assert.assertTrue(report.count(LoadReport.ITERATION) > 0, "No iteration ran");
+        Assert.assertTrue(report.errorRate(LoadReport.ITERATION)
+                <= Double.parseDouble(TestConfig.get().get("LoadMaxErrorRate", "0.01")), report.getErrors().toString());
+    }
+}
@@ -7,6 +7,7 @@ import org.testng.Assert;
 import org.testng.annotations.*;
 import pages.ResultsPage;
 import pages.SearchPage;
+import utils.TestConfig;
 
 import java.io.IOException;
 
@@ -29,8 +30,8 @@ public class SearchPageTests extends TestBase {
     public void beforeMethod()
     {
         openBrowser();
-        searchPageObj = new SearchPage(driver);
-        resultPageObj = new ResultsPage(driver);
+        searchPageObj = new SearchPage(getDriver());
+        resultPageObj = new ResultsPage(getDriver());
     } //test changes
     /**
      * Provides test data for the Test_ValidateResultsOnSearchPages test method.
@@ -40,7 +41,8 @@ public class SearchPageTests extends TestBase {
      */
     @DataProvider(name = "PushSearchData")
     public Object [][] PushDataToAuth() throws InvalidFormatException, IOException {
-        Object [][] testData = utils.DataProvider.fetchData(initializePropertyFile().getProperty("ExcelDataSheet") , "ValidateResultsOnSearchPages");
+        Object [][] testData = utils.DataProvider.fetchData(TestConfig.get().getExcelDataSheet() , "ValidateResultsOnSearchPages",
+                SearchPageTests.class);
         return testData;
     }
 
@@ -55,17 +57,13 @@ public class SearchPageTests extends TestBase {
     public void Test_ValidateResultsOnSearchPages(String searchKeyWord, String firstPage, String secondPage) {
         searchPageObj.sendDataToSearchField(searchKeyWord);
         searchPageObj.clickSearchButton();
-        sleep(3000);
+        resultPageObj.waitForResults();
         resultPageObj.scrollToPageEnd();
-        sleep(3000);
         resultPageObj.pageNavigator(firstPage);
         int numberOfSecondPageResult = resultPageObj.getResultsCount();
         resultPageObj.scrollToPageEnd();
-        sleep(3000);
         resultPageObj.pageNavigator(secondPage);
-        sleep(3000);
         int NumberOfThirdPageResults = resultPageObj.getResultsCount();
-        sleep(3000);
         Assert.assertEquals(NumberOfThirdPageResults, numberOfSecondPageResult);
     }
 
@@ -0,0 +1,5 @@
+// keeps the main thread busy long enough to be reported as a long task
+var end = Date.now() + 120;
+while (Date.now() < end) {
+}
+document.body.setAttribute('data-ready', 'true');